@@ -0,0 +1,114 @@
+package com.learnreactivespring.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "item.client")
+public class ItemClientProperties {
+
+    private String baseUrl = "http://localhost:8080";
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Duration writeTimeout = Duration.ofSeconds(10);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+    private boolean compression = true;
+    private boolean h2c = false;
+    private boolean metrics = true;
+    private WireFormat wireFormat = WireFormat.JSON;
+    private Pool pool = new Pool();
+    private Cache cache = new Cache();
+    private Resilience resilience = new Resilience();
+    private Rsocket rsocket = new Rsocket();
+
+    public enum WireFormat {
+        JSON(MediaType.APPLICATION_JSON, MediaType.APPLICATION_STREAM_JSON),
+        SMILE(MediaType.valueOf("application/x-jackson-smile"), MediaType.valueOf("application/stream+x-jackson-smile")),
+        // Jackson 2.11 has no non-blocking CBOR parser, so listings are streamed as Smile.
+        CBOR(MediaType.APPLICATION_CBOR, MediaType.valueOf("application/stream+x-jackson-smile"));
+
+        private final MediaType mediaType;
+        private final MediaType streamingMediaType;
+
+        WireFormat(MediaType mediaType, MediaType streamingMediaType) {
+            this.mediaType = mediaType;
+            this.streamingMediaType = streamingMediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public MediaType getStreamingMediaType() {
+            return streamingMediaType;
+        }
+    }
+
+    @Data
+    public static class Pool {
+        private int maxConnections = 200;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Cache {
+        private boolean enabled = true;
+        private long maximumSize = 10000;
+        private Duration defaultTimeToLive = Duration.ofSeconds(5);
+        private Duration staleRetention = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Rsocket {
+        private boolean enabled = false;
+        private URI uri = URI.create("ws://localhost:8080/rsocket");
+    }
+
+    @Data
+    public static class Resilience {
+        private Retry retry = new Retry();
+        private Hedge hedge = new Hedge();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private Bulkhead bulkhead = new Bulkhead();
+
+        @Data
+        public static class Retry {
+            private int maxAttempts = 3;
+            private Duration minBackoff = Duration.ofMillis(100);
+            private Duration maxBackoff = Duration.ofSeconds(2);
+            private double jitter = 0.5;
+        }
+
+        @Data
+        public static class Hedge {
+            private boolean enabled = false;
+            private double percentile = 0.95;
+            private Duration minDelay = Duration.ofMillis(20);
+            private long minSamples = 100;
+        }
+
+        @Data
+        public static class CircuitBreaker {
+            private float failureRateThreshold = 50;
+            private float slowCallRateThreshold = 100;
+            private Duration slowCallDurationThreshold = Duration.ofSeconds(2);
+            private int slidingWindowSize = 50;
+            private int minimumNumberOfCalls = 20;
+            private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+            private int permittedNumberOfCallsInHalfOpenState = 5;
+        }
+
+        @Data
+        public static class Bulkhead {
+            private int maxConcurrentCalls = 100;
+            private Duration maxWaitDuration = Duration.ZERO;
+        }
+    }
+}
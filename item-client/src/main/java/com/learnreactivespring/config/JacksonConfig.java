@@ -0,0 +1,47 @@
+package com.learnreactivespring.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.learnreactivespring.codec.CborValueEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class JacksonConfig {
+
+    private static final MediaType[] SMILE_MEDIA_TYPES = {
+            ItemClientProperties.WireFormat.SMILE.getMediaType(), new MediaType("application", "*+x-jackson-smile")
+    };
+
+    // Registered on the Boot-managed ObjectMapper that backs the WebClient and server codecs.
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+
+    // Smile and CBOR codecs built from the same Boot-configured mapper, for item.client.wire-format. Spring 5.2 puts
+    // custom writers ahead of the default ones, so JSON is registered again in front of CBOR to stay the choice for
+    // bodies without a content type and for a wildcard Accept.
+    @Bean
+    public CodecCustomizer binaryCodecCustomizer(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+        ObjectMapper smileMapper = jackson2ObjectMapperBuilder.factory(new SmileFactory()).build();
+        ObjectMapper cborMapper = jackson2ObjectMapperBuilder.factory(new CBORFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MEDIA_TYPES));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MEDIA_TYPES));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new CborValueEncoder(cborMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.learnreactivespring.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceConfig {
+
+    private static final String ITEM_SERVICE = "item-service";
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(ItemClientProperties properties) {
+        ItemClientProperties.Resilience resilience = properties.getResilience();
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(resilience.getCircuitBreaker().getFailureRateThreshold())
+                .slowCallRateThreshold(resilience.getCircuitBreaker().getSlowCallRateThreshold())
+                .slowCallDurationThreshold(resilience.getCircuitBreaker().getSlowCallDurationThreshold())
+                .slidingWindowSize(resilience.getCircuitBreaker().getSlidingWindowSize())
+                .minimumNumberOfCalls(resilience.getCircuitBreaker().getMinimumNumberOfCalls())
+                .waitDurationInOpenState(resilience.getCircuitBreaker().getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(resilience.getCircuitBreaker().getPermittedNumberOfCallsInHalfOpenState())
+                .build());
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(ItemClientProperties properties) {
+        ItemClientProperties.Resilience resilience = properties.getResilience();
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(resilience.getBulkhead().getMaxConcurrentCalls())
+                .maxWaitDuration(resilience.getBulkhead().getMaxWaitDuration())
+                .build());
+    }
+
+    @Bean
+    public CircuitBreaker itemServiceCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return circuitBreakerRegistry.circuitBreaker(ITEM_SERVICE);
+    }
+
+    @Bean
+    public Bulkhead itemServiceBulkhead(BulkheadRegistry bulkheadRegistry) {
+        return bulkheadRegistry.bulkhead(ITEM_SERVICE);
+    }
+
+    @Bean
+    public MeterBinder circuitBreakerMetrics(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry);
+    }
+
+    @Bean
+    public MeterBinder bulkheadMetrics(BulkheadRegistry bulkheadRegistry) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry);
+    }
+}
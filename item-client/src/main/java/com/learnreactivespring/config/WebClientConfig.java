@@ -0,0 +1,76 @@
+package com.learnreactivespring.config;
+
+import com.learnreactivespring.resilience.ResilienceFilter;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Configuration
+@EnableConfigurationProperties(ItemClientProperties.class)
+public class WebClientConfig {
+
+    // Fixed routes under /v1/items; any other last segment there is an item id.
+    private static final Set<String> ITEM_ROUTES = Collections.singleton("runtimeException");
+    private static final Pattern ITEM_PATH = Pattern.compile("(/?v1/items)/([^/]+)");
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider itemConnectionProvider(ItemClientProperties properties) {
+        ItemClientProperties.Pool pool = properties.getPool();
+        return ConnectionProvider.builder("item-client")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .metrics(properties.isMetrics())
+                .build();
+    }
+
+    @Bean
+    public WebClient itemWebClient(WebClient.Builder builder, ConnectionProvider itemConnectionProvider,
+                                   ItemClientProperties properties, ResilienceFilter resilienceFilter) {
+        HttpClient httpClient = HttpClient.create(itemConnectionProvider)
+                .protocol(properties.isH2c()
+                        ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                        : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .compress(properties.isCompression())
+                .metrics(properties.isMetrics(), WebClientConfig::uriTag)
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis()))
+                // Added per request so they are removed when the connection goes back to the pool and never close idle connections.
+                .doOnRequest((request, connection) -> connection
+                        .addHandlerLast(new ReadTimeoutHandler(properties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WriteTimeoutHandler(properties.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS)));
+
+        // Reactor Netty 0.9.8 has no HttpClient#responseTimeout; bound the wait for response headers per exchange instead,
+        // inside the resilience filter so each retried or hedged attempt gets its own timeout.
+        return builder
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(resilienceFilter)
+                .filter((request, next) -> next.exchange(request).timeout(properties.getResponseTimeout()))
+                .build();
+    }
+
+    // Collapses item ids so the reactor.netty.http.client.* meters keep one series per route rather than per item.
+    static String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        Matcher matcher = ITEM_PATH.matcher(path);
+        return matcher.matches() && !ITEM_ROUTES.contains(matcher.group(2)) ? matcher.group(1) + "/{id}" : path;
+    }
+}
@@ -1,9 +1,11 @@
 package com.learnreactivespring.controller;
 
+import com.learnreactivespring.config.ItemClientProperties;
 import com.learnreactivespring.domain.Item;
+import com.learnreactivespring.service.ItemLookupService;
+import com.learnreactivespring.service.ItemRSocketService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
@@ -13,12 +15,28 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class ItemClientController {
 
-    WebClient webClient = WebClient.create("http://localhost:8080");
+    private final WebClient webClient;
+    private final ItemLookupService itemLookupService;
+    private final ItemRSocketService itemRSocketService;
+    private final ItemClientProperties.WireFormat wireFormat;
+
+    public ItemClientController(WebClient itemWebClient, ItemLookupService itemLookupService,
+                                ItemRSocketService itemRSocketService, ItemClientProperties itemClientProperties) {
+        this.webClient = itemWebClient;
+        this.itemLookupService = itemLookupService;
+        this.itemRSocketService = itemRSocketService;
+        this.wireFormat = itemClientProperties.getWireFormat();
+    }
 
     @GetMapping("/client/retrieve")
     public Flux<Item> getAllItemsUsingRetrieve(){
 
+        if (itemRSocketService.isEnabled()) {
+            return itemRSocketService.getAllItems()
+                    .log("Items in Client Project rsocket : ");
+        }
         return webClient.get().uri("/v1/items")
+                .accept(wireFormat.getStreamingMediaType())
                 .retrieve()
                 .bodyToFlux(Item.class)
                 .log("Items in Client Project retrieve : ");
@@ -27,7 +45,12 @@ public class ItemClientController {
     @GetMapping("/client/exchange")
     public Flux<Item> getAllItemsUsingExchange(){
 
+        if (itemRSocketService.isEnabled()) {
+            return itemRSocketService.getAllItems()
+                    .log("Items in Client Project rsocket : ");
+        }
         return webClient.get().uri("/v1/items")
+                .accept(wireFormat.getStreamingMediaType())
                 .exchange()
                 .flatMapMany(clientResponse -> clientResponse.bodyToFlux(Item.class))
                 .log("Items in Client Project exchange : ");
@@ -36,9 +59,7 @@ public class ItemClientController {
     @GetMapping("/client/retrieve/singleItem")
     public Mono<Item> getOneItemUsingRetrieve(@PathVariable String id){
 
-        return webClient.get().uri("/v1/items/{id}",id)
-                .retrieve()
-                .bodyToMono(Item.class)
+        return getItem(id)
                 .log("Items in Client Project retrieve single Item : ");
     }
 
@@ -47,18 +68,21 @@ public class ItemClientController {
 
         String id = "ABC";
 
-        return webClient.get().uri("/v1/items/{id}",id)
-                .exchange()
-                .flatMap(clientResponse -> clientResponse.bodyToMono(Item.class))
+        return getItem(id)
                 .log("Items in Client Project retrieve single Item : ");
     }
 
     @PostMapping("/client/createItem")
     public Mono<Item> createItem(@RequestBody Item item){
 
+        if (itemRSocketService.isEnabled()) {
+            return itemRSocketService.saveItem(item)
+                    .log("Created item is : ");
+        }
         Mono<Item> itemMono = Mono.just(item);
        return webClient.post().uri("/v1/items")
-                .contentType(MediaType.APPLICATION_JSON)
+                .contentType(wireFormat.getMediaType())
+                .accept(wireFormat.getMediaType())
                 .body(itemMono, Item.class)
                 .retrieve()
                 .bodyToMono(Item.class)
@@ -69,9 +93,15 @@ public class ItemClientController {
     @DeleteMapping("/client/deleteItem/{id}")
     public Mono<Void> deleteItem(@PathVariable String id){
 
+        if (itemRSocketService.isEnabled()) {
+            return itemRSocketService.deleteItem(id)
+                    .doOnSuccess(deleted -> itemLookupService.invalidate(id))
+                    .log("Deleted Item is");
+        }
         return webClient.delete().uri("/v1/items/{id}",id)
                 .retrieve()
                 .bodyToMono(Void.class)
+                .doOnSuccess(deleted -> itemLookupService.invalidate(id))
                 .log("Deleted Item is");
     }
 
@@ -121,15 +151,24 @@ public class ItemClientController {
     public Mono<Item> updateItem(@PathVariable String id,
                                  @RequestBody Item item){
 
+        if (itemRSocketService.isEnabled()) {
+            return itemRSocketService.updateItem(id, item)
+                    .doOnSuccess(updated -> itemLookupService.invalidate(id))
+                    .log("Updated Item is : ");
+        }
         Mono<Item> itemBody = Mono.just(item);
 
         return webClient.put().uri("/v1/items/{id}",id)
+                .contentType(wireFormat.getMediaType())
+                .accept(wireFormat.getMediaType())
                 .body(itemBody, Item.class)
                 .retrieve()
                 .bodyToMono(Item.class)
+                .doOnSuccess(updated -> itemLookupService.invalidate(id))
                 .log("Updated Item is : ");
     }
 
-
-
+    private Mono<Item> getItem(String id) {
+        return itemRSocketService.isEnabled() ? itemRSocketService.getItem(id) : itemLookupService.getItem(id);
+    }
 }
@@ -0,0 +1,159 @@
+package com.learnreactivespring.resilience;
+
+import com.learnreactivespring.config.ItemClientProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resilience pipeline for every item-client call: retry (idempotent methods only, exponential backoff with jitter)
+ * around a circuit breaker, around one or two (hedged, GET only) upstream attempts that each hold a bulkhead permit
+ * until their response body has been read or released.
+ */
+@Component
+public class ResilienceFilter implements ExchangeFilterFunction {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS =
+            EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+    private static final Set<HttpStatus> RETRYABLE_STATUSES =
+            EnumSet.of(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+
+    private final ItemClientProperties.Resilience properties;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Timer upstreamLatency;
+    private final Counter hedgedRequests;
+
+    public ResilienceFilter(ItemClientProperties itemClientProperties, CircuitBreaker itemServiceCircuitBreaker,
+                            Bulkhead itemServiceBulkhead, MeterRegistry meterRegistry) {
+        this.properties = itemClientProperties.getResilience();
+        this.circuitBreaker = itemServiceCircuitBreaker;
+        this.bulkhead = itemServiceBulkhead;
+        this.upstreamLatency = Timer.builder("item.client.upstream.latency")
+                .publishPercentiles(properties.getHedge().getPercentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.hedgedRequests = meterRegistry.counter("item.client.hedged.requests");
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.method());
+        boolean hedge = request.method() == HttpMethod.GET && properties.getHedge().isEnabled();
+        Mono<ClientResponse> call = (hedge ? hedged(request, next) : attempt(request, next))
+                .transform(CircuitBreakerOperator.of(circuitBreaker));
+        if (idempotent) {
+            call = call.retryWhen(Retry.backoff(properties.getRetry().getMaxAttempts() - 1, properties.getRetry().getMinBackoff())
+                    .maxBackoff(properties.getRetry().getMaxBackoff())
+                    .jitter(properties.getRetry().getJitter())
+                    .filter(ResilienceFilter::isRetryable)
+                    .doBeforeRetry(signal -> release(signal.failure()))
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }
+        return call.onErrorResume(UpstreamServerErrorException.class, ex -> Mono.just(ex.getResponse()));
+    }
+
+    private Mono<ClientResponse> attempt(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquirePermission()) {
+                return Mono.error(BulkheadFullException.createBulkheadFullException(bulkhead));
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    bulkhead.onComplete();
+                }
+            };
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnNext(response -> upstreamLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .map(response -> releasingOnBody(response, release))
+                    .doOnError(ex -> release.run())
+                    .doOnCancel(release);
+        })
+                .flatMap(response -> response.statusCode().is5xxServerError()
+                        ? Mono.error(new UpstreamServerErrorException(response))
+                        : Mono.just(response));
+    }
+
+    // The connection stays busy until the body is read, so the permit is only returned once the body completes.
+    private static ClientResponse releasingOnBody(ClientResponse response, Runnable release) {
+        return ClientResponse.from(response)
+                .body(response.bodyToFlux(DataBuffer.class).doFinally(signal -> release.run()))
+                .build();
+    }
+
+    // A second attempt starts once the first is slower than the observed latency percentile; the first to answer wins,
+    // and a response that arrives after that, or a failed second attempt's 5xx response, is released rather than
+    // dropped with its connection and bulkhead permit still held.
+    private Mono<ClientResponse> hedged(ClientRequest request, ExchangeFunction next) {
+        Duration delay = hedgeDelay();
+        if (delay == null) {
+            return attempt(request, next);
+        }
+        return Mono.defer(() -> {
+            AtomicBoolean answered = new AtomicBoolean();
+            Mono<ClientResponse> first = attempt(request, next)
+                    .flatMap(response -> claim(answered, response));
+            Mono<ClientResponse> hedge = Mono.delay(delay)
+                    .doOnNext(tick -> hedgedRequests.increment())
+                    .then(attempt(request, next))
+                    .flatMap(response -> claim(answered, response))
+                    .onErrorResume(ex -> {
+                        release(ex);
+                        return Mono.never();
+                    });
+            return Mono.first(first, hedge);
+        });
+    }
+
+    private static Mono<ClientResponse> claim(AtomicBoolean answered, ClientResponse response) {
+        return answered.compareAndSet(false, true) ? Mono.just(response) : response.releaseBody().then(Mono.never());
+    }
+
+    private Duration hedgeDelay() {
+        if (upstreamLatency.count() < properties.getHedge().getMinSamples()) {
+            return null;
+        }
+        ValueAtPercentile[] percentiles = upstreamLatency.takeSnapshot().percentileValues();
+        long nanos = percentiles.length == 0 ? 0 : (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+        Duration observed = Duration.ofNanos(nanos);
+        return observed.compareTo(properties.getHedge().getMinDelay()) > 0 ? observed : properties.getHedge().getMinDelay();
+    }
+
+    private static boolean isRetryable(Throwable ex) {
+        if (ex instanceof UpstreamServerErrorException) {
+            return RETRYABLE_STATUSES.contains(((UpstreamServerErrorException) ex).getResponse().statusCode());
+        }
+        return ex instanceof IOException || ex instanceof TimeoutException || ex instanceof BulkheadFullException;
+    }
+
+    private static void release(Throwable ex) {
+        if (ex instanceof UpstreamServerErrorException) {
+            ((UpstreamServerErrorException) ex).getResponse().releaseBody().subscribe();
+        }
+    }
+}
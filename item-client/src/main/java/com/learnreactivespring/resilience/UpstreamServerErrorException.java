@@ -0,0 +1,21 @@
+package com.learnreactivespring.resilience;
+
+import org.springframework.web.reactive.function.client.ClientResponse;
+
+/**
+ * Carries a 5xx response through the circuit breaker and retry operators, which only see errors. The response is
+ * handed back to the caller unchanged once no retry is left.
+ */
+public class UpstreamServerErrorException extends RuntimeException {
+
+    private final transient ClientResponse response;
+
+    public UpstreamServerErrorException(ClientResponse response) {
+        super("Upstream responded " + response.rawStatusCode(), null, false, false);
+        this.response = response;
+    }
+
+    public ClientResponse getResponse() {
+        return response;
+    }
+}
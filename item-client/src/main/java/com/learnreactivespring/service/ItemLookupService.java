@@ -0,0 +1,128 @@
+package com.learnreactivespring.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learnreactivespring.config.ItemClientProperties;
+import com.learnreactivespring.domain.Item;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-item lookups against the item service. Concurrent lookups for the same id share one upstream call, and
+ * responses are cached for their {@code Cache-Control} max-age (or the configured default); once stale, an entry with
+ * an ETag is revalidated with {@code If-None-Match} instead of being fetched again.
+ */
+@Service
+public class ItemLookupService {
+
+    private static final String ITEM_URI = "/v1/items/{id}";
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final WebClient webClient;
+    private final ItemClientProperties.Cache properties;
+    private final MediaType mediaType;
+    private final Cache<String, CachedItem> cache;
+    private final ConcurrentMap<String, Mono<Item>> inFlight = new ConcurrentHashMap<>();
+
+    public ItemLookupService(WebClient itemWebClient, ItemClientProperties itemClientProperties) {
+        this.webClient = itemWebClient;
+        this.properties = itemClientProperties.getCache();
+        this.mediaType = itemClientProperties.getWireFormat().getMediaType();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getStaleRetention())
+                .build();
+    }
+
+    public Mono<Item> getItem(String id) {
+        return Mono.defer(() -> {
+            CachedItem cached = properties.isEnabled() ? cache.getIfPresent(id) : null;
+            if (cached != null && cached.isFresh()) {
+                return Mono.just(cached.getItem());
+            }
+            return inFlight.computeIfAbsent(id, key -> fetch(key, cached)
+                    .doOnTerminate(() -> inFlight.remove(key))
+                    .cache());
+        });
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    private Mono<Item> fetch(String id, CachedItem cached) {
+        return webClient.get().uri(ITEM_URI, id)
+                .accept(mediaType)
+                .headers(headers -> {
+                    if (cached != null && cached.getETag() != null) {
+                        headers.setIfNoneMatch(cached.getETag());
+                    }
+                })
+                .exchange()
+                .flatMap(clientResponse -> {
+                    if (clientResponse.statusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+                        return clientResponse.releaseBody()
+                                .then(Mono.fromSupplier(() -> store(id, cached.getItem(), cached.getETag(), clientResponse)));
+                    }
+                    if (clientResponse.statusCode().isError()) {
+                        if (clientResponse.statusCode() == HttpStatus.NOT_FOUND) {
+                            invalidate(id);
+                        }
+                        return clientResponse.createException().flatMap(Mono::error);
+                    }
+                    return clientResponse.bodyToMono(Item.class)
+                            .map(item -> store(id, item, null, clientResponse));
+                });
+    }
+
+    private Item store(String id, Item item, String previousETag, ClientResponse clientResponse) {
+        HttpHeaders headers = clientResponse.headers().asHttpHeaders();
+        String cacheControl = headers.getCacheControl();
+        String eTag = headers.getETag() != null ? headers.getETag() : previousETag;
+        Duration timeToLive = timeToLive(cacheControl);
+        if (!properties.isEnabled() || timeToLive == null || (timeToLive.isZero() && eTag == null)) {
+            cache.invalidate(id);
+        } else {
+            cache.put(id, new CachedItem(item, eTag, System.nanoTime() + timeToLive.toNanos()));
+        }
+        return item;
+    }
+
+    // null means the response must not be stored; zero means store it for revalidation only.
+    private Duration timeToLive(String cacheControl) {
+        if (cacheControl == null) {
+            return properties.getDefaultTimeToLive();
+        }
+        if (cacheControl.contains("no-store")) {
+            return null;
+        }
+        if (cacheControl.contains("no-cache")) {
+            return Duration.ZERO;
+        }
+        Matcher maxAge = MAX_AGE.matcher(cacheControl);
+        return maxAge.find() ? Duration.ofSeconds(Long.parseLong(maxAge.group(1))) : properties.getDefaultTimeToLive();
+    }
+
+    @Value
+    private static class CachedItem {
+        Item item;
+        String eTag;
+        long freshUntil;
+
+        boolean isFresh() {
+            return System.nanoTime() - freshUntil < 0;
+        }
+    }
+}
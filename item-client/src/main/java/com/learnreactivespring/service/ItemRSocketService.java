@@ -0,0 +1,82 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemClientProperties;
+import com.learnreactivespring.domain.Item;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Item operations over one long-lived, multiplexed RSocket connection to the item service (item.client.rsocket.*).
+ * The connection is opened on first use and shared by every request; once it closes or fails to open, the next
+ * request opens a new one.
+ */
+@Service
+public class ItemRSocketService {
+
+    private static final String ITEM_GET_ROUTE = "v1.items.get.{id}";
+    private static final String ITEM_SAVE_ROUTE = "v1.items.save";
+    private static final String ITEM_UPDATE_ROUTE = "v1.items.update.{id}";
+    private static final String ITEM_DELETE_ROUTE = "v1.items.delete.{id}";
+    private static final String ITEM_ALL_ROUTE = "v1.items.all";
+
+    private final RSocketRequester.Builder rSocketRequesterBuilder;
+    private final ItemClientProperties.Rsocket properties;
+    private final Duration connectTimeout;
+    private final AtomicReference<Mono<RSocketRequester>> connection = new AtomicReference<>();
+
+    public ItemRSocketService(RSocketRequester.Builder rSocketRequesterBuilder, ItemClientProperties itemClientProperties) {
+        this.rSocketRequesterBuilder = rSocketRequesterBuilder;
+        this.properties = itemClientProperties.getRsocket();
+        this.connectTimeout = itemClientProperties.getConnectTimeout();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Mono<Item> getItem(String id) {
+        return requester().flatMap(requester -> requester.route(ITEM_GET_ROUTE, id).retrieveMono(Item.class));
+    }
+
+    public Mono<Item> saveItem(Item item) {
+        return requester().flatMap(requester -> requester.route(ITEM_SAVE_ROUTE).data(item).retrieveMono(Item.class));
+    }
+
+    public Mono<Item> updateItem(String id, Item item) {
+        return requester().flatMap(requester -> requester.route(ITEM_UPDATE_ROUTE, id).data(item).retrieveMono(Item.class));
+    }
+
+    public Mono<Void> deleteItem(String id) {
+        return requester().flatMap(requester -> requester.route(ITEM_DELETE_ROUTE, id).retrieveMono(Void.class));
+    }
+
+    public Flux<Item> getAllItems() {
+        return requester().flatMapMany(requester -> requester.route(ITEM_ALL_ROUTE).retrieveFlux(Item.class));
+    }
+
+    private Mono<RSocketRequester> requester() {
+        return Mono.defer(() -> {
+            Mono<RSocketRequester> current = connection.get();
+            if (current != null) {
+                return current;
+            }
+            Mono<RSocketRequester> connecting = connect();
+            return connection.compareAndSet(null, connecting) ? connecting : requester();
+        });
+    }
+
+    private Mono<RSocketRequester> connect() {
+        return rSocketRequesterBuilder.connectWebSocket(properties.getUri())
+                .timeout(connectTimeout)
+                .doOnNext(requester -> requester.rsocket().onClose()
+                        .doFinally(signal -> connection.set(null))
+                        .subscribe())
+                .doOnError(ex -> connection.set(null))
+                .cache();
+    }
+}
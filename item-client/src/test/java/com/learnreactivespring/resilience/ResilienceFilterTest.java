@@ -0,0 +1,192 @@
+package com.learnreactivespring.resilience;
+
+import com.learnreactivespring.config.ItemClientProperties;
+import com.learnreactivespring.config.ResilienceConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpMethod.PUT;
+
+public class ResilienceFilterTest {
+
+    private static final ClientRequest GET_ITEM = ClientRequest.create(GET, URI.create("http://localhost:8080/v1/items/ABC")).build();
+
+    private ItemClientProperties properties;
+    private MeterRegistry meterRegistry;
+    private Bulkhead bulkhead;
+    private AtomicInteger calls;
+
+    @Before
+    public void setUp() {
+        properties = new ItemClientProperties();
+        properties.getResilience().getRetry().setMinBackoff(Duration.ofMillis(1));
+        properties.getResilience().getRetry().setMaxBackoff(Duration.ofMillis(5));
+        meterRegistry = new SimpleMeterRegistry();
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    public void retriesTransientStatusForIdempotentRequest() {
+        ExchangeFunction next = request -> Mono.just(calls.getAndIncrement() == 0 ? response(HttpStatus.SERVICE_UNAVAILABLE) : response(HttpStatus.OK));
+
+        StepVerifier.create(filter().filter(GET_ITEM, next))
+                .expectNextMatches(response -> response.statusCode() == HttpStatus.OK)
+                .verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void returnsInternalServerErrorWithoutRetrying() {
+        ExchangeFunction next = request -> Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR)).doOnNext(response -> calls.incrementAndGet());
+
+        StepVerifier.create(filter().filter(GET_ITEM, next))
+                .expectNextMatches(response -> response.statusCode() == HttpStatus.INTERNAL_SERVER_ERROR)
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void doesNotRetryNonIdempotentRequest() {
+        ClientRequest post = ClientRequest.create(POST, URI.create("http://localhost:8080/v1/items")).build();
+        ExchangeFunction next = request -> Mono.just(response(HttpStatus.SERVICE_UNAVAILABLE)).doOnNext(response -> calls.incrementAndGet());
+
+        StepVerifier.create(filter().filter(post, next))
+                .expectNextMatches(response -> response.statusCode() == HttpStatus.SERVICE_UNAVAILABLE)
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void openCircuitRejectsWithoutCallingUpstream() {
+        properties.getResilience().getRetry().setMaxAttempts(1);
+        properties.getResilience().getCircuitBreaker().setMinimumNumberOfCalls(2);
+        properties.getResilience().getCircuitBreaker().setSlidingWindowSize(2);
+        ResilienceFilter filter = filter();
+        ExchangeFunction next = request -> Mono.just(response(HttpStatus.SERVICE_UNAVAILABLE)).doOnNext(response -> calls.incrementAndGet());
+
+        filter.filter(GET_ITEM, next).block();
+        filter.filter(GET_ITEM, next).block();
+        StepVerifier.create(filter.filter(GET_ITEM, next))
+                .verifyError(CallNotPermittedException.class);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void slowRequestIsHedged() {
+        properties.getResilience().getHedge().setEnabled(true);
+        properties.getResilience().getHedge().setMinSamples(5);
+        ResilienceFilter filter = filter();
+        for (int i = 0; i < 5; i++) {
+            filter.filter(GET_ITEM, request -> Mono.just(response(HttpStatus.OK))).block();
+        }
+        ExchangeFunction slowThenFast = request -> calls.getAndIncrement() == 0
+                ? Mono.just(response(HttpStatus.OK)).delayElement(Duration.ofSeconds(5))
+                : Mono.just(response(HttpStatus.OK));
+
+        StepVerifier.create(filter.filter(GET_ITEM, slowThenFast))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(1));
+
+        assertEquals(2, calls.get());
+        assertEquals(1, meterRegistry.counter("item.client.hedged.requests").count(), 0);
+    }
+
+    @Test
+    public void onlyGetRequestsAreHedged() {
+        properties.getResilience().getHedge().setEnabled(true);
+        properties.getResilience().getHedge().setMinSamples(5);
+        ResilienceFilter filter = filter();
+        for (int i = 0; i < 5; i++) {
+            filter.filter(GET_ITEM, request -> Mono.just(response(HttpStatus.OK))).block();
+        }
+        ClientRequest put = ClientRequest.create(PUT, URI.create("http://localhost:8080/v1/items/ABC")).build();
+        ExchangeFunction slow = request -> Mono.just(response(HttpStatus.OK))
+                .delayElement(Duration.ofMillis(200))
+                .doOnNext(response -> calls.incrementAndGet());
+
+        StepVerifier.create(filter.filter(put, slow))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(0, meterRegistry.counter("item.client.hedged.requests").count(), 0);
+    }
+
+    @Test
+    public void failedHedgeAttemptReleasesItsResponse() {
+        properties.getResilience().getHedge().setEnabled(true);
+        properties.getResilience().getHedge().setMinSamples(5);
+        ResilienceFilter filter = filter();
+        for (int i = 0; i < 5; i++) {
+            filter.filter(GET_ITEM, request -> Mono.just(response(HttpStatus.OK))).block().releaseBody().block();
+        }
+        int maxConcurrentCalls = properties.getResilience().getBulkhead().getMaxConcurrentCalls();
+        AtomicBoolean unavailableBodyReleased = new AtomicBoolean();
+        ExchangeFunction slowThenUnavailable = request -> calls.getAndIncrement() == 0
+                ? Mono.just(response(HttpStatus.OK)).delayElement(Duration.ofSeconds(2))
+                : Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE, ExchangeStrategies.withDefaults())
+                .body(Flux.<DataBuffer>empty().doFinally(signal -> unavailableBodyReleased.set(true)))
+                .build());
+
+        ClientResponse response = filter.filter(GET_ITEM, slowThenUnavailable).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.OK, response.statusCode());
+        assertEquals(2, calls.get());
+        assertEquals(1, meterRegistry.counter("item.client.hedged.requests").count(), 0);
+        assertTrue(unavailableBodyReleased.get());
+        response.releaseBody().block();
+        assertEquals(maxConcurrentCalls, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    @Test
+    public void bulkheadPermitIsHeldUntilTheBodyIsRead() {
+        ResilienceFilter filter = filter();
+        int maxConcurrentCalls = properties.getResilience().getBulkhead().getMaxConcurrentCalls();
+
+        ClientResponse response = filter.filter(GET_ITEM, request -> Mono.just(response(HttpStatus.OK))).block();
+        assertEquals(maxConcurrentCalls - 1, bulkhead.getMetrics().getAvailableConcurrentCalls());
+
+        response.releaseBody().block();
+        assertEquals(maxConcurrentCalls, bulkhead.getMetrics().getAvailableConcurrentCalls());
+    }
+
+    private ResilienceFilter filter() {
+        ResilienceConfig config = new ResilienceConfig();
+        bulkhead = config.itemServiceBulkhead(config.bulkheadRegistry(properties));
+        return new ResilienceFilter(properties,
+                config.itemServiceCircuitBreaker(config.circuitBreakerRegistry(properties)),
+                bulkhead,
+                meterRegistry);
+    }
+
+    private static ClientResponse response(HttpStatus status) {
+        return ClientResponse.create(status, ExchangeStrategies.withDefaults()).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemClientProperties;
+import com.learnreactivespring.domain.Item;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ItemLookupServiceTest {
+
+    private static final String BODY = "{\"id\":\"ABC\",\"description\":\"Beats HeadPhones\",\"price\":19.99}";
+
+    private List<ClientRequest> requests;
+    private Function<ClientRequest, ClientResponse> responder;
+    private ItemLookupService itemLookupService;
+
+    @Before
+    public void setUp() {
+        requests = new ArrayList<>();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(responder.apply(request)).delayElement(Duration.ofMillis(50));
+                })
+                .build();
+        itemLookupService = new ItemLookupService(webClient, new ItemClientProperties());
+    }
+
+    @Test
+    public void concurrentLookupsShareOneUpstreamCall() {
+        responder = request -> ok("max-age=60", "\"1\"");
+
+        StepVerifier.create(Mono.zip(itemLookupService.getItem("ABC"), itemLookupService.getItem("ABC")))
+                .expectNextMatches(items -> items.getT1().getId().equals("ABC") && items.getT2().getId().equals("ABC"))
+                .verifyComplete();
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void freshEntryIsServedFromCache() {
+        responder = request -> ok("max-age=60", "\"1\"");
+
+        StepVerifier.create(itemLookupService.getItem("ABC").then(itemLookupService.getItem("ABC")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    public void staleEntryIsRevalidatedWithETag() {
+        responder = request -> ok("no-cache", "\"1\"");
+        StepVerifier.create(itemLookupService.getItem("ABC")).expectNextCount(1).verifyComplete();
+
+        responder = request -> ClientResponse.create(HttpStatus.NOT_MODIFIED, ExchangeStrategies.withDefaults()).build();
+        StepVerifier.create(itemLookupService.getItem("ABC"))
+                .expectNextMatches(item -> item.getDescription().equals("Beats HeadPhones"))
+                .verifyComplete();
+
+        assertEquals(2, requests.size());
+        assertNull(requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"1\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    public void noStoreResponseIsNotCached() {
+        responder = request -> ok("no-store", "\"1\"");
+
+        StepVerifier.create(itemLookupService.getItem("ABC").then(itemLookupService.getItem("ABC")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, requests.size());
+    }
+
+    private static ClientResponse ok(String cacheControl, String eTag) {
+        return ClientResponse.create(HttpStatus.OK, ExchangeStrategies.withDefaults())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(HttpHeaders.ETAG, eTag)
+                .body(BODY)
+                .build();
+    }
+}
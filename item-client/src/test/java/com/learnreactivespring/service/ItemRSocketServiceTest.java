@@ -0,0 +1,92 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemClientProperties;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.WebsocketServerTransport;
+import io.rsocket.util.DefaultPayload;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class ItemRSocketServiceTest {
+
+    private static final String BODY = "{\"id\":\"ABC\",\"description\":\"Beats HeadPhones\",\"price\":19.99}";
+
+    private final List<RSocket> connections = new CopyOnWriteArrayList<>();
+    private CloseableChannel server;
+    private ItemRSocketService itemRSocketService;
+
+    @Before
+    public void setUp() {
+        SocketAcceptor acceptor = (setup, sendingSocket) -> {
+            connections.add(sendingSocket);
+            return Mono.just(new RSocket() {
+                @Override
+                public Mono<Payload> requestResponse(Payload payload) {
+                    payload.release();
+                    return Mono.just(DefaultPayload.create(BODY));
+                }
+            });
+        };
+        server = RSocketServer.create(acceptor).bindNow(WebsocketServerTransport.create("localhost", 0));
+
+        ItemClientProperties properties = new ItemClientProperties();
+        properties.getRsocket().setUri(URI.create("ws://localhost:" + server.address().getPort()));
+        RSocketRequester.Builder builder = RSocketRequester.builder()
+                .rsocketStrategies(RSocketStrategies.builder()
+                        .encoder(new Jackson2JsonEncoder())
+                        .decoder(new Jackson2JsonDecoder())
+                        .build())
+                .dataMimeType(MediaType.APPLICATION_JSON);
+        itemRSocketService = new ItemRSocketService(builder, properties);
+    }
+
+    @After
+    public void tearDown() {
+        server.dispose();
+    }
+
+    @Test
+    public void requestsShareOneConnection() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(itemRSocketService.getItem("ABC"))
+                    .expectNextMatches(item -> item.getPrice() == 19.99)
+                    .verifyComplete();
+        }
+
+        assertEquals(1, connections.size());
+    }
+
+    @Test
+    public void reconnectsAfterConnectionCloses() {
+        itemRSocketService.getItem("ABC").block();
+        connections.get(0).dispose();
+        StepVerifier.create(connections.get(0).onClose()).verifyComplete();
+
+        // The client may notice the close only when the next request fails on the old connection.
+        StepVerifier.create(itemRSocketService.getItem("ABC").retryWhen(Retry.fixedDelay(3, Duration.ofMillis(50))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, connections.size());
+    }
+}
@@ -0,0 +1,136 @@
+package com.learnreactivespring.benchmark;
+
+import com.learnreactivespring.config.CodecConfig;
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_CBOR_VALUE;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_SMILE_VALUE;
+
+/**
+ * Encodes and decodes items with the codecs the application registers for each media type, built from Boot's Jackson
+ * auto-configuration plus {@link CodecConfig}, so that its mapper settings and Afterburner are part of the measurement.
+ */
+@State(Scope.Benchmark)
+public class ItemCodecBenchmark {
+
+    private static final ResolvableType ITEM_TYPE = ResolvableType.forClass(Item.class);
+
+    @Param({"1", "100", "1000"})
+    private int itemCount;
+
+    @Param({MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_CBOR_VALUE})
+    private String mediaType;
+
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+    private ConfigurableApplicationContext context;
+    private MediaType itemMediaType;
+    private Encoder<Item> encoder;
+    private Decoder<Item> decoder;
+    private List<Item> items;
+    private byte[] encodedItems;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(JacksonAutoConfiguration.class, CodecsAutoConfiguration.class, CodecConfig.class,
+                CodecProperties.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        ServerCodecConfigurer codecConfigurer = ServerCodecConfigurer.create();
+        context.getBeanProvider(CodecCustomizer.class).orderedStream()
+                .forEach(customizer -> customizer.customize(codecConfigurer));
+        itemMediaType = MediaType.valueOf(mediaType);
+        encoder = encoder(codecConfigurer);
+        decoder = decoder(codecConfigurer);
+
+        items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new Item(Integer.toHexString(i), "Item " + i, 100.0 + i, 0L));
+        }
+        encodedItems = DataBufferUtils.join(encoder.encode(Flux.fromIterable(items), bufferFactory, ITEM_TYPE, itemMediaType,
+                Collections.emptyMap()))
+                .map(dataBuffer -> {
+                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(bytes);
+                    DataBufferUtils.release(dataBuffer);
+                    return bytes;
+                })
+                .block();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long encodeItems() {
+        return encoder.encode(Flux.fromIterable(items), bufferFactory, ITEM_TYPE, itemMediaType,
+                Collections.emptyMap())
+                .map(dataBuffer -> {
+                    int readable = dataBuffer.readableByteCount();
+                    DataBufferUtils.release(dataBuffer);
+                    return (long) readable;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    @Benchmark
+    public Long decodeItems() {
+        return decoder.decode(Flux.just(bufferFactory.wrap(encodedItems)), ITEM_TYPE, itemMediaType,
+                Collections.emptyMap())
+                .count()
+                .block();
+    }
+
+    // The first registered writer and reader for the type win, as they do when WebFlux picks one for a request.
+    @SuppressWarnings("unchecked")
+    private Encoder<Item> encoder(ServerCodecConfigurer codecConfigurer) {
+        return codecConfigurer.getWriters().stream()
+                .filter(writer -> writer instanceof EncoderHttpMessageWriter && writer.canWrite(ITEM_TYPE, itemMediaType))
+                .map(writer -> (Encoder<Item>) ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No encoder for " + itemMediaType));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Decoder<Item> decoder(ServerCodecConfigurer codecConfigurer) {
+        return codecConfigurer.getReaders().stream()
+                .filter(reader -> reader instanceof DecoderHttpMessageReader && reader.canRead(ITEM_TYPE, itemMediaType))
+                .map(reader -> (Decoder<Item>) ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No decoder for " + itemMediaType));
+    }
+
+    @EnableConfigurationProperties(ItemProperties.class)
+    static class CodecProperties {
+    }
+}
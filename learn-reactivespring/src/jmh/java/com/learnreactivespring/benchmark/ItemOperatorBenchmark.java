@@ -0,0 +1,69 @@
+package com.learnreactivespring.benchmark;
+
+import com.learnreactivespring.document.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactor operator chains used by the item handlers and services, without any I/O.
+ */
+@State(Scope.Benchmark)
+public class ItemOperatorBenchmark {
+
+    @Param({"1000"})
+    private int itemCount;
+
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        items = Flux.range(0, itemCount)
+                .map(i -> new Item(Integer.toHexString(i), "Item " + i, 100.0 + i, 0L))
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Item> singleItemResponse() {
+        return Mono.just(items.get(0))
+                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND))
+                .block();
+    }
+
+    @Benchmark
+    public Long bulkBatching() {
+        return Flux.fromIterable(items)
+                .buffer(100)
+                .flatMapSequential(Flux::fromIterable, 4)
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public Long sharedStreamFanOut(Subscribers subscribers) {
+        Flux<Item> shared = Flux.fromIterable(items)
+                .replay(20)
+                .refCount(subscribers.count);
+        return Flux.range(0, subscribers.count)
+                .flatMap(i -> shared.onBackpressureBuffer(256, BufferOverflowStrategy.DROP_OLDEST))
+                .count()
+                .block();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Subscribers {
+        @Param({"1", "16"})
+        private int count;
+    }
+}
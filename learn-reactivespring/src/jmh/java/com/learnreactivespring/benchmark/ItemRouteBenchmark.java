@@ -0,0 +1,113 @@
+package com.learnreactivespring.benchmark;
+
+import com.learnreactivespring.LearnReactivespringApplication;
+import com.learnreactivespring.constants.ItemConstants;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Compares the annotated ItemController routes with the functional ItemRouter routes over real
+ * Netty connections, against the test profile backed by embedded Mongo.
+ */
+@State(Scope.Benchmark)
+public class ItemRouteBenchmark {
+
+    private static final int ITEM_COUNT = 100;
+
+    private ConfigurableApplicationContext context;
+    private WebTestClient webTestClient;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(LearnReactivespringApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run();
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+                .build();
+
+        ItemReactiveRepository itemReactiveRepository = context.getBean(ItemReactiveRepository.class);
+        itemReactiveRepository.deleteAll()
+                .thenMany(Flux.range(0, ITEM_COUNT).map(i -> new Item(null, "Item " + i, 100.0 + i)))
+                .concatWith(Mono.just(new Item("ABC", "Beats HeadPhones", 19.99)))
+                .flatMap(itemReactiveRepository::save)
+                .blockLast();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Item> annotatedGetAllItems() {
+        return getAllItems(ItemConstants.ITEM_END_POINT_V1);
+    }
+
+    @Benchmark
+    public List<Item> functionalGetAllItems() {
+        return getAllItems(ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1);
+    }
+
+    @Benchmark
+    public Item annotatedGetOneItem() {
+        return getOneItem(ItemConstants.ITEM_END_POINT_V1);
+    }
+
+    @Benchmark
+    public Item functionalGetOneItem() {
+        return getOneItem(ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1);
+    }
+
+    @Benchmark
+    public Item annotatedUpdateItem() {
+        return updateItem(ItemConstants.ITEM_END_POINT_V1);
+    }
+
+    @Benchmark
+    public Item functionalUpdateItem() {
+        return updateItem(ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1);
+    }
+
+    private List<Item> getAllItems(String endPoint) {
+        return webTestClient.get().uri(endPoint)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectBodyList(Item.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Item getOneItem(String endPoint) {
+        return webTestClient.get().uri(endPoint.concat("/{id}"), "ABC")
+                .exchange()
+                .expectBody(Item.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private Item updateItem(String endPoint) {
+        return webTestClient.put().uri(endPoint.concat("/{id}"), "ABC")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new Item(null, "Beats HeadPhones", 29.99))
+                .exchange()
+                .expectBody(Item.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
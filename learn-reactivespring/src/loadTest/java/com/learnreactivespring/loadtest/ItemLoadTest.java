@@ -0,0 +1,245 @@
+package com.learnreactivespring.loadtest;
+
+import com.learnreactivespring.LearnReactivespringApplication;
+import com.learnreactivespring.constants.ItemConstants;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.document.ItemCapped;
+import com.learnreactivespring.initialize.ItemSeeder;
+import com.learnreactivespring.loadtest.LoadTestOptions.Operation;
+import com.learnreactivespring.repository.ItemReactiveCappedRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load generator: boots the application on a random port against embedded Mongo (test profile),
+ * drives a weighted mix of item requests plus stream subscriptions over pooled WebClient connections, and
+ * prints throughput and latency percentiles per endpoint. Run with {@code ./gradlew loadTest}.
+ */
+public class ItemLoadTest {
+
+    private static final Duration FEED_INTERVAL = Duration.ofMillis(100);
+
+    private final ConfigurableApplicationContext context;
+    private final LoadTestOptions options;
+    private final String itemEndPoint;
+    private final String streamEndPoint;
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final EndpointStats streamStats = new EndpointStats("STREAM (first event)");
+    private final LongAdder streamEvents = new LongAdder();
+    private final Queue<String> createdIds = new ConcurrentLinkedQueue<>();
+
+    private List<String> seededIds;
+    private WebClient webClient;
+
+    public static void main(String[] args) {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LearnReactivespringApplication.class)
+                .profiles("test")
+                .properties("server.port=0")
+                .run(args);
+        try {
+            new ItemLoadTest(context, options).run();
+        } finally {
+            context.close();
+        }
+    }
+
+    ItemLoadTest(ConfigurableApplicationContext context, LoadTestOptions options) {
+        this.context = context;
+        this.options = options;
+        this.itemEndPoint = options.isFunctionalRoutes()
+                ? ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1 : ItemConstants.ITEM_END_POINT_V1;
+        this.streamEndPoint = options.isFunctionalRoutes()
+                ? ItemConstants.ITEM__STREAM_FUNCTIONAL_END_POINT_V1 : ItemConstants.ITEM_STREAM_END_POINT_V1;
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats(operation + " " + itemEndPoint));
+        }
+    }
+
+    void run() {
+        seed();
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.getConcurrency() + options.getStreamSubscribers())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+
+        try {
+            System.out.printf("Warming up for %s with %d workers%n", options.getWarmup(), options.getConcurrency());
+            phase(options.getWarmup());
+            stats.values().forEach(EndpointStats::reset);
+            streamStats.reset();
+            streamEvents.reset();
+
+            System.out.printf("Measuring for %s with %d workers and %d stream subscribers against %s%n",
+                    options.getDuration(), options.getConcurrency(), options.getStreamSubscribers(), itemEndPoint);
+            long start = System.nanoTime();
+            phase(options.getDuration());
+            report(System.nanoTime() - start);
+        } finally {
+            connectionProvider.disposeLater().block();
+        }
+    }
+
+    private void seed() {
+        ItemSeeder itemSeeder = context.getBean(ItemSeeder.class);
+        ReactiveMongoOperations reactiveMongoOperations = context.getBean(ReactiveMongoOperations.class);
+
+        Query ids = new Query();
+        ids.fields().include("id");
+        seededIds = itemSeeder.seed(itemSeeder.generate(options.getSeedItems()))
+                .thenMany(reactiveMongoOperations.find(ids, Item.class))
+                .map(Item::getId)
+                .collectList()
+                .block();
+
+        if (options.getStreamSubscribers() == 0) {
+            return;
+        }
+        reactiveMongoOperations.dropCollection(ItemCapped.class)
+                .then(reactiveMongoOperations.createCollection(ItemCapped.class,
+                        CollectionOptions.empty().maxDocuments(1000).size(1_000_000).capped()))
+                .block();
+    }
+
+    private void phase(Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        Mono<Long> end = Mono.delay(duration);
+
+        Flux<Long> feed = options.getStreamSubscribers() == 0 ? Flux.empty() : feedStream(end);
+        Flux<Long> subscribers = Flux.range(0, options.getStreamSubscribers())
+                .flatMap(i -> subscribeToStream(end));
+
+        Flux<Long> workers = Flux.range(0, options.getConcurrency())
+                .flatMap(i -> Mono.defer(this::nextRequest).repeat(() -> System.nanoTime() < deadline));
+
+        Flux.merge(feed, subscribers, workers).blockLast();
+    }
+
+    private Flux<Long> feedStream(Mono<Long> end) {
+        return context.getBean(ItemReactiveCappedRepository.class)
+                .insert(Flux.interval(FEED_INTERVAL)
+                        .map(i -> new ItemCapped(null, "Stream Item " + i, 1.0 + i))
+                        .takeUntilOther(end))
+                .thenMany(Flux.empty());
+    }
+
+    private Mono<Long> nextRequest() {
+        Operation picked = options.pick(ThreadLocalRandom.current().nextInt(options.totalWeight()));
+        Operation operation = picked == Operation.DELETE && createdIds.isEmpty() ? Operation.CREATE : picked;
+        EndpointStats endpointStats = stats.get(operation);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request(operation)
+                    .doOnSuccess(ignored -> endpointStats.recordSince(start));
+        })
+                .onErrorResume(ex -> {
+                    endpointStats.recordError();
+                    return Mono.empty();
+                })
+                .then(Mono.empty());
+    }
+
+    private Mono<?> request(Operation operation) {
+        switch (operation) {
+            case GET_ALL:
+                return webClient.get().uri(itemEndPoint + "?limit={limit}", options.getPageLimit())
+                        .retrieve()
+                        .bodyToFlux(Item.class)
+                        .then();
+            case GET_ONE:
+                return webClient.get().uri(itemEndPoint + "/{id}", randomSeededId())
+                        .retrieve()
+                        .bodyToMono(Item.class);
+            case CREATE:
+                return webClient.post().uri(itemEndPoint)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new Item(null, "Created Item", randomPrice()))
+                        .retrieve()
+                        .bodyToMono(Item.class)
+                        .doOnNext(item -> createdIds.offer(item.getId()));
+            case UPDATE:
+                return webClient.put().uri(itemEndPoint + "/{id}", randomSeededId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new Item(null, "Updated Item", randomPrice()))
+                        .retrieve()
+                        .bodyToMono(Item.class);
+            case DELETE:
+                String id = createdIds.poll();
+                if (id == null) {
+                    return Mono.empty();
+                }
+                return webClient.delete().uri(itemEndPoint + "/{id}", id)
+                        .retrieve()
+                        .bodyToMono(Void.class);
+            default:
+                throw new IllegalArgumentException("Unsupported operation " + operation);
+        }
+    }
+
+    private Mono<Long> subscribeToStream(Mono<Long> end) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get().uri(streamEndPoint)
+                    .accept(MediaType.APPLICATION_STREAM_JSON)
+                    .retrieve()
+                    .bodyToFlux(ItemCapped.class)
+                    .index()
+                    .doOnNext(indexed -> {
+                        if (indexed.getT1() == 0) {
+                            streamStats.recordSince(start);
+                        }
+                        streamEvents.increment();
+                    })
+                    .takeUntilOther(end)
+                    .then(Mono.<Long>empty());
+        })
+                .onErrorResume(ex -> {
+                    streamStats.recordError();
+                    return Mono.empty();
+                });
+    }
+
+    private String randomSeededId() {
+        return seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size()));
+    }
+
+    private static double randomPrice() {
+        return Math.round(ThreadLocalRandom.current().nextDouble(1, 1000) * 100) / 100.0;
+    }
+
+    private void report(long elapsedNanos) {
+        System.out.println();
+        EndpointStats.printHeader(System.out);
+        options.getMix().keySet().forEach(operation -> stats.get(operation).print(System.out, elapsedNanos));
+        if (options.getStreamSubscribers() > 0) {
+            streamStats.print(System.out, elapsedNanos);
+            System.out.printf("stream events received: %d (%.1f/s per subscriber)%n",
+                    streamEvents.sum(),
+                    streamEvents.sum() * 1e9 / elapsedNanos / options.getStreamSubscribers());
+        }
+    }
+}
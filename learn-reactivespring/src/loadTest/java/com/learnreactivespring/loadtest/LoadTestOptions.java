@@ -0,0 +1,84 @@
+package com.learnreactivespring.loadtest;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load-test settings read from {@code loadtest.*} system properties, e.g.
+ * {@code ./gradlew loadTest -Dloadtest.duration=60s -Dloadtest.concurrency=128 -Dloadtest.mix=GET_ALL:1,GET_ONE:6,CREATE:1,UPDATE:1,DELETE:1}.
+ */
+@Value
+class LoadTestOptions {
+
+    Duration warmup;
+    Duration duration;
+    int concurrency;
+    int streamSubscribers;
+    int seedItems;
+    int pageLimit;
+    boolean functionalRoutes;
+    Map<Operation, Integer> mix;
+
+    static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                duration("loadtest.warmup", "10s"),
+                duration("loadtest.duration", "30s"),
+                Integer.getInteger("loadtest.concurrency", 64),
+                Integer.getInteger("loadtest.streamSubscribers", 16),
+                Integer.getInteger("loadtest.seedItems", 1000),
+                Integer.getInteger("loadtest.pageLimit", 100),
+                "functional".equalsIgnoreCase(System.getProperty("loadtest.routes", "annotated")),
+                mix(System.getProperty("loadtest.mix", "GET_ALL:1,GET_ONE:6,CREATE:1,UPDATE:1,DELETE:1")));
+    }
+
+    int totalWeight() {
+        return mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    Operation pick(int roll) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Roll exceeds the total mix weight");
+    }
+
+    private static Duration duration(String key, String defaultValue) {
+        String value = System.getProperty(key, defaultValue).trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            if (weight > 0) {
+                mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must contain at least one operation with a positive weight");
+        }
+        return Collections.unmodifiableMap(mix);
+    }
+
+    enum Operation {
+        GET_ALL, GET_ONE, CREATE, UPDATE, DELETE
+    }
+}
@@ -1,12 +1,25 @@
 package com.learnreactivespring;
 
+import com.learnreactivespring.initialize.ItemTransferRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class LearnReactivespringApplication {
 
+    // An export or import runs without the web server and exits once done, with ItemTransferRunner's exit code.
     public static void main(String[] args) {
+        if (ItemTransferRunner.isTransfer(args)) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(LearnReactivespringApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(args);
+            System.exit(SpringApplication.exit(context));
+        }
         SpringApplication.run(LearnReactivespringApplication.class, args);
     }
 
@@ -0,0 +1,74 @@
+package com.learnreactivespring.codec;
+
+import com.learnreactivespring.document.Item;
+import org.springframework.core.codec.Decoder;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.function.BodyExtractor;
+import org.springframework.web.reactive.function.BodyExtractors;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads the item bodies of the bulk and import endpoints with decoders of their own, so that the limits set on them
+ * (see CodecConfig) apply to those bodies only; every other body keeps the shared codecs and their defaults. A content
+ * type none of them reads fails with 415, as it would through the shared codecs.
+ */
+public class BulkBodyReader implements BodyExtractor<Flux<Item>, ReactiveHttpInputMessage> {
+
+    private static final BodyExtractor<Flux<Item>, ReactiveHttpInputMessage> ITEMS = BodyExtractors.toFlux(Item.class);
+
+    private final List<HttpMessageReader<?>> readers = new ArrayList<>();
+
+    public BulkBodyReader(Decoder<?>... decoders) {
+        for (Decoder<?> decoder : decoders) {
+            readers.add(new DecoderHttpMessageReader<>(decoder));
+        }
+    }
+
+    // For annotated endpoints, which take the request instead of an @RequestBody.
+    public Flux<Item> read(ServerHttpRequest request) {
+        return ITEMS.extract(request, new ReadersContext(readers, Optional.empty(), Collections.emptyMap()));
+    }
+
+    @Override
+    public Flux<Item> extract(ReactiveHttpInputMessage inputMessage, Context context) {
+        return ITEMS.extract(inputMessage, new ReadersContext(readers, context.serverResponse(), context.hints()));
+    }
+
+    private static class ReadersContext implements Context {
+
+        private final List<HttpMessageReader<?>> readers;
+        private final Optional<ServerHttpResponse> serverResponse;
+        private final Map<String, Object> hints;
+
+        ReadersContext(List<HttpMessageReader<?>> readers, Optional<ServerHttpResponse> serverResponse, Map<String, Object> hints) {
+            this.readers = readers;
+            this.serverResponse = serverResponse;
+            this.hints = hints;
+        }
+
+        @Override
+        public List<HttpMessageReader<?>> messageReaders() {
+            return readers;
+        }
+
+        @Override
+        public Optional<ServerHttpResponse> serverResponse() {
+            return serverResponse;
+        }
+
+        @Override
+        public Map<String, Object> hints() {
+            return hints;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.learnreactivespring.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CBOR decoder that also decodes into a {@code Flux}. Jackson 2.11 has no non-blocking CBOR parser, so the body is
+ * aggregated (bounded by its max-in-memory-size; see BulkBodyReader for bulk bodies) and read as a CBOR array of elements.
+ */
+public class CborArrayDecoder extends Jackson2CborDecoder {
+
+    public CborArrayDecoder(ObjectMapper objectMapper) {
+        super(objectMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    @Override
+    public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType, MimeType mimeType,
+                               Map<String, Object> hints) {
+        ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+        return decodeToMono(input, listType, mimeType, hints)
+                .flatMapIterable(values -> (List<?>) values);
+    }
+}
@@ -0,0 +1,83 @@
+package com.learnreactivespring.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.constants.ItemMediaTypes;
+import com.learnreactivespring.flow.Batches;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+
+/**
+ * Writes a stream of elements as NDJSON, stream+json or server-sent events, flushing once per batch
+ * (item.listing.flush-batch-size elements or item.listing.flush-interval, whichever comes first)
+ * instead of once per element.
+ */
+@Component
+public class FlushBatchingWriter {
+
+    public static final List<MediaType> STREAMING_MEDIA_TYPES =
+            Arrays.asList(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON, MediaType.TEXT_EVENT_STREAM);
+
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_DATA = "data:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_END = "\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+    private final ItemProperties.Listing listingProperties;
+
+    public FlushBatchingWriter(ObjectMapper objectMapper, ItemProperties itemProperties) {
+        this.objectMapper = objectMapper;
+        this.listingProperties = itemProperties.getListing();
+    }
+
+    public MediaType selectMediaType(List<MediaType> acceptedMediaTypes) {
+        return ItemMediaTypes.select(acceptedMediaTypes, STREAMING_MEDIA_TYPES);
+    }
+
+    public <T> BodyInserter<Flux<T>, ReactiveHttpOutputMessage> inserter(Flux<T> elements, MediaType mediaType) {
+        return (message, context) -> write(elements, mediaType, message);
+    }
+
+    public <T> Mono<Void> write(Flux<T> elements, MediaType mediaType, ReactiveHttpOutputMessage message) {
+        message.getHeaders().setContentType(mediaType);
+        boolean serverSentEvents = MediaType.TEXT_EVENT_STREAM.isCompatibleWith(mediaType);
+        DataBufferFactory bufferFactory = message.bufferFactory();
+
+        // Elements are kept as byte arrays while batching so a cancelled response never strands pooled buffers, and
+        // batches are only cut on demand, so a slow reader holds the stream back instead of overflowing it.
+        Flux<Flux<DataBuffer>> batches = Batches.bySizeOrInterval(elements.map(element -> encode(element, serverSentEvents)),
+                        listingProperties.getFlushBatchSize(), listingProperties.getFlushInterval())
+                .map(batch -> Flux.fromIterable(batch).map(bufferFactory::wrap));
+        return message.writeAndFlushWith(batches);
+    }
+
+    private byte[] encode(Object element, boolean serverSentEvents) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(element);
+        } catch (JsonProcessingException ex) {
+            throw new EncodingException("Could not write " + element.getClass().getSimpleName(), ex);
+        }
+        byte[] prefix = serverSentEvents ? SSE_DATA : new byte[0];
+        byte[] suffix = serverSentEvents ? SSE_END : NEWLINE;
+        byte[] frame = new byte[prefix.length + json.length + suffix.length];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+        System.arraycopy(json, 0, frame, prefix.length, json.length);
+        System.arraycopy(suffix, 0, frame, prefix.length + json.length, suffix.length);
+        return frame;
+    }
+}
@@ -0,0 +1,92 @@
+package com.learnreactivespring.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.learnreactivespring.codec.BulkBodyReader;
+import com.learnreactivespring.codec.CborArrayDecoder;
+import com.learnreactivespring.codec.CborArrayEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_SMILE;
+
+@Configuration
+public class CodecConfig {
+
+    private static final MediaType[] JSON_MEDIA_TYPES = {
+            MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), APPLICATION_NDJSON
+    };
+    private static final MediaType[] SMILE_MEDIA_TYPES = {
+            APPLICATION_SMILE, new MediaType("application", "*+x-jackson-smile")
+    };
+
+    // Picked up by Boot's Jackson auto-configuration, so the shared ObjectMapper (and every codec built on it)
+    // uses generated accessors instead of reflection.
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+
+    @Bean
+    @Order(1)
+    public CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> {
+            configurer.defaultCodecs().jackson2JsonEncoder(jsonEncoder(objectMapper));
+            configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper, JSON_MEDIA_TYPES));
+        };
+    }
+
+    // Binary variants of the same Boot-configured mapper (modules and feature settings), selected by
+    // Accept/Content-Type: Smile streams like JSON, CBOR is read and written as whole values or arrays.
+    // Spring 5.2 puts custom writers ahead of the default ones, so the JSON encoder is registered again in front of
+    // CBOR to stay the answer for a missing or wildcard Accept and for client bodies without a content type.
+    @Bean
+    @Order(2)
+    public CodecCustomizer binaryCodecCustomizer(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+        ObjectMapper smileMapper = jackson2ObjectMapperBuilder.factory(new SmileFactory()).build();
+        ObjectMapper cborMapper = jackson2ObjectMapperBuilder.factory(new CBORFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MEDIA_TYPES));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MEDIA_TYPES));
+            configurer.customCodecs().registerWithDefaultConfig(jsonEncoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new CborArrayEncoder(cborMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new CborArrayDecoder(cborMapper));
+        };
+    }
+
+    // The bulk and import bodies' own decoders: JSON, NDJSON and Smile items are decoded one at a time, each bounded by
+    // item.bulk.max-item-size, while a CBOR body is read whole and bounded by item.bulk.max-cbor-body-size.
+    @Bean
+    public BulkBodyReader bulkBodyReader(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder,
+                                         ItemProperties itemProperties) {
+        int maxItemSize = (int) itemProperties.getBulk().getMaxItemSize().toBytes();
+        Jackson2JsonDecoder jsonDecoder = new Jackson2JsonDecoder(objectMapper, JSON_MEDIA_TYPES);
+        jsonDecoder.setMaxInMemorySize(maxItemSize);
+        Jackson2SmileDecoder smileDecoder = new Jackson2SmileDecoder(jackson2ObjectMapperBuilder.factory(new SmileFactory()).build(),
+                SMILE_MEDIA_TYPES);
+        smileDecoder.setMaxInMemorySize(maxItemSize);
+        CborArrayDecoder cborDecoder = new CborArrayDecoder(jackson2ObjectMapperBuilder.factory(new CBORFactory()).build());
+        cborDecoder.setMaxInMemorySize((int) itemProperties.getBulk().getMaxCborBodySize().toBytes());
+        return new BulkBodyReader(jsonDecoder, smileDecoder, cborDecoder);
+    }
+
+    private static Jackson2JsonEncoder jsonEncoder(ObjectMapper objectMapper) {
+        Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper, JSON_MEDIA_TYPES);
+        encoder.setStreamingMediaTypes(Arrays.asList(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON));
+        return encoder;
+    }
+}
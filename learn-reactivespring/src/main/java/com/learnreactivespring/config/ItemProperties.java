@@ -0,0 +1,126 @@
+package com.learnreactivespring.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "item")
+public class ItemProperties {
+
+    private Stream stream = new Stream();
+    private Changes changes = new Changes();
+    private Bulk bulk = new Bulk();
+    private Cache cache = new Cache();
+    private Page page = new Page();
+    private Listing listing = new Listing();
+    private Typeahead typeahead = new Typeahead();
+    private Stats stats = new Stats();
+    private Transfer transfer = new Transfer();
+    private Seed seed = new Seed();
+    private Trace trace = new Trace();
+
+    @Data
+    public static class Stream {
+        private int replaySize = 20;
+        private int bufferSize = 256;
+        private OverflowStrategy overflowStrategy = OverflowStrategy.DROP_OLDEST;
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+        private Duration gracePeriod = Duration.ofSeconds(5);
+        private Duration reconnectMinBackoff = Duration.ofSeconds(1);
+        private Duration reconnectMaxBackoff = Duration.ofSeconds(30);
+        private int maxFilteredCursors = 16;
+
+        /**
+         * What a connection does once its client stops reading: keep the newest buffer-size elements, keep only the
+         * latest element, or close the connection when buffer-size elements are waiting.
+         */
+        public enum OverflowStrategy {
+            DROP_OLDEST, LATEST, DISCONNECT
+        }
+    }
+
+    @Data
+    public static class Changes {
+        private Duration reconnectMinBackoff = Duration.ofSeconds(1);
+        private Duration reconnectMaxBackoff = Duration.ofSeconds(30);
+    }
+
+    /**
+     * max-item-size bounds each item of a JSON, NDJSON or Smile bulk or import body, and max-cbor-body-size a whole
+     * CBOR one, which is read at once rather than item by item.
+     */
+    @Data
+    public static class Bulk {
+        private int batchSize = 500;
+        private Duration batchTimeout = Duration.ofMillis(100);
+        private int concurrency = 4;
+        private DataSize maxItemSize = DataSize.ofKilobytes(64);
+        private DataSize maxCborBodySize = DataSize.ofMegabytes(16);
+    }
+
+    @Data
+    public static class Cache {
+        private long maximumSize = 10000;
+        private Duration timeToLive = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Page {
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+    }
+
+    @Data
+    public static class Listing {
+        private int flushBatchSize = 32;
+        private Duration flushInterval = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class Typeahead {
+        private boolean enabled = true;
+        private int minGram = 2;
+        private int maxGram = 12;
+        private int maxSuggestions = 10;
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Stats {
+        private List<Double> priceBoundaries = new ArrayList<>(Arrays.asList(0.0, 50.0, 100.0, 250.0, 500.0, 1000.0));
+        private boolean summaryEnabled = true;
+        private Duration refreshInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Transfer {
+        private int exportBatchSize = 1000;
+        private int importBatchSize = 1000;
+        private int importConcurrency = 4;
+        private int maxConcurrentImports = 2;
+    }
+
+    /**
+     * Synthetic items ItemDataInitializer adds to the sample ones; the same random-seed always generates the same items.
+     */
+    @Data
+    public static class Seed {
+        private int count = 0;
+        private long randomSeed = 42;
+        private int batchSize = 1000;
+        private int concurrency = 4;
+    }
+
+    @Data
+    public static class Trace {
+        private boolean enabled = false;
+        private int sampleRate = 0;
+        private String header = "X-Item-Trace";
+    }
+}
@@ -0,0 +1,50 @@
+package com.learnreactivespring.config;
+
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.learnreactivespring.constants.ItemConstants.ITEM_BULK_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_EXPORT_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_IMPORT_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_SEARCH_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_STATS_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_SUGGEST_END_POINT_V1;
+
+@Configuration
+public class MetricsConfig {
+
+    // The item routes with a fixed last segment, the same on /v1/items and /v1/fun/items; the netty meters only see
+    // the raw path, so these are listed rather than taken from the matched handler.
+    private static final Set<String> ITEM_ROUTES = new HashSet<>(Arrays.asList(
+            lastSegment(ITEM_BULK_END_POINT_V1), lastSegment(ITEM_SEARCH_END_POINT_V1),
+            lastSegment(ITEM_SUGGEST_END_POINT_V1), lastSegment(ITEM_STATS_END_POINT_V1),
+            lastSegment(ITEM_EXPORT_END_POINT_V1), lastSegment(ITEM_IMPORT_END_POINT_V1),
+            lastSegment(ITEM_END_POINT_V1 + "/runtimeException")));
+
+    // Collapses item ids so the reactor.netty.http.server.* meters keep one series per route rather than per item.
+    private static final Pattern ITEM_ID = Pattern.compile("(/v1(?:/fun)?/items)/([^/]+)");
+
+    @Bean
+    public NettyServerCustomizer nettyMetricsCustomizer() {
+        return httpServer -> httpServer.metrics(true, MetricsConfig::uriTag);
+    }
+
+    static String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        Matcher matcher = ITEM_ID.matcher(path);
+        return matcher.matches() && !ITEM_ROUTES.contains(matcher.group(2)) ? matcher.group(1) + "/{id}" : path;
+    }
+
+    private static String lastSegment(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
@@ -5,4 +5,27 @@ public class ItemConstants {
     public static final String ITEM_STREAM_END_POINT_V1 = "/v1/stream/items";
     public static final String ITEM_FUNCTIONAL_END_POINT_V1 = "/v1/fun/items";
     public static final String ITEM__STREAM_FUNCTIONAL_END_POINT_V1 = "/v1/fun/stream/items";
+    public static final String ITEM_CHANGES_END_POINT_V1 = "/v1/stream/items/changes";
+    public static final String ITEM_CHANGES_FUNCTIONAL_END_POINT_V1 = "/v1/fun/stream/items/changes";
+    public static final String ITEM_SEARCH_END_POINT_V1 = "/v1/items/search";
+    public static final String ITEM_SEARCH_FUNCTIONAL_END_POINT_V1 = "/v1/fun/items/search";
+    public static final String ITEM_SUGGEST_END_POINT_V1 = "/v1/items/suggest";
+    public static final String ITEM_SUGGEST_FUNCTIONAL_END_POINT_V1 = "/v1/fun/items/suggest";
+    public static final String ITEM_STATS_END_POINT_V1 = "/v1/items/stats";
+    public static final String ITEM_STATS_FUNCTIONAL_END_POINT_V1 = "/v1/fun/items/stats";
+    public static final String ITEM_EXPORT_END_POINT_V1 = "/v1/items/export";
+    public static final String ITEM_EXPORT_FUNCTIONAL_END_POINT_V1 = "/v1/fun/items/export";
+    public static final String ITEM_IMPORT_END_POINT_V1 = "/v1/items/import";
+    public static final String ITEM_IMPORT_FUNCTIONAL_END_POINT_V1 = "/v1/fun/items/import";
+    public static final String ITEM_BULK_END_POINT_V1 = "/v1/items/bulk";
+    public static final String ITEM_BULK_FUNCTIONAL_END_POINT_V1 = "/v1/fun/items/bulk";
+    public static final String ITEM_CACHE_STATS_END_POINT_V1 = "/v1/items/cache/stats";
+    public static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+    public static final String ITEM_GET_ROUTE_V1 = "v1.items.get";
+    public static final String ITEM_SAVE_ROUTE_V1 = "v1.items.save";
+    public static final String ITEM_UPDATE_ROUTE_V1 = "v1.items.update";
+    public static final String ITEM_DELETE_ROUTE_V1 = "v1.items.delete";
+    public static final String ITEM_ALL_ROUTE_V1 = "v1.items.all";
+    public static final String ITEM_STREAM_ROUTE_V1 = "v1.items.stream";
+    public static final String ITEM_BULK_ROUTE_V1 = "v1.items.bulk";
 }
@@ -0,0 +1,42 @@
+package com.learnreactivespring.constants;
+
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ItemMediaTypes {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final MediaType APPLICATION_NDJSON = MediaType.valueOf(APPLICATION_NDJSON_VALUE);
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+    public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+    public static final MediaType APPLICATION_STREAM_SMILE = MediaType.valueOf(APPLICATION_STREAM_SMILE_VALUE);
+    public static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+    public static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+
+    // Single item bodies: JSON first so a missing or wildcard Accept keeps answering JSON.
+    public static final List<MediaType> ITEM_MEDIA_TYPES =
+            Arrays.asList(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR);
+    // Item listings: the single item types plus streamed Smile.
+    public static final List<MediaType> ITEM_LIST_MEDIA_TYPES =
+            Arrays.asList(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_STREAM_SMILE, APPLICATION_CBOR);
+
+    /**
+     * The first of {@code offered} compatible with the most specific, highest quality accepted type; the first
+     * offered type when nothing matches.
+     */
+    public static MediaType select(List<MediaType> accepted, List<MediaType> offered) {
+        List<MediaType> sortedMediaTypes = new ArrayList<>(accepted);
+        MediaType.sortBySpecificityAndQuality(sortedMediaTypes);
+        for (MediaType acceptedType : sortedMediaTypes) {
+            for (MediaType offeredType : offered) {
+                if (acceptedType.isCompatibleWith(offeredType)) {
+                    return offeredType;
+                }
+            }
+        }
+        return offered.get(0);
+    }
+}
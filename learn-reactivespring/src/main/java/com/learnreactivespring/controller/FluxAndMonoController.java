@@ -1,6 +1,8 @@
 package com.learnreactivespring.controller;
 
-
+import com.learnreactivespring.flow.StreamFlowControl;
+import com.learnreactivespring.trace.SignalTracer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -12,23 +14,29 @@ import java.time.Duration;
 @RestController
 public class FluxAndMonoController {
 
+    @Autowired
+    private SignalTracer signalTracer;
+
+    @Autowired
+    private StreamFlowControl streamFlowControl;
+
     @GetMapping("/flux")
     public Flux<Integer> returnFlux() {
         return  Flux.just(1, 2, 3, 4)
                 //.delayElements(Duration.ofSeconds(1))
-                .log();
+                .transform(signalTracer.flux("FluxAndMonoController.returnFlux"));
     }
 
     @GetMapping(value = "/fluxstream", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
     public Flux<Long> returnFluxStream() {
-        return  Flux.interval(Duration.ofSeconds(1))
-                .log();
+        return  streamFlowControl.apply(Flux.interval(Duration.ofSeconds(1)), "fluxstream")
+                .transform(signalTracer.flux("FluxAndMonoController.returnFluxStream"));
     }
 
     @GetMapping("/mono")
     public Mono<Integer> returnMono() {
         return Mono.just(1)
-                .log();
+                .transform(signalTracer.mono("FluxAndMonoController.returnMono"));
     }
 
 }
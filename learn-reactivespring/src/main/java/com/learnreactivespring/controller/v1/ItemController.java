@@ -1,35 +1,150 @@
 package com.learnreactivespring.controller.v1;
 
+import com.learnreactivespring.codec.BulkBodyReader;
+import com.learnreactivespring.codec.FlushBatchingWriter;
 import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.dto.ItemCacheStats;
+import com.learnreactivespring.dto.ItemImportProgress;
+import com.learnreactivespring.dto.ItemPageRequest;
+import com.learnreactivespring.dto.ItemSearchHit;
+import com.learnreactivespring.dto.ItemStats;
+import com.learnreactivespring.dto.ItemSuggestion;
+import com.learnreactivespring.dto.ItemTextSearchQuery;
 import com.learnreactivespring.repository.ItemReactiveRepository;
+import com.learnreactivespring.service.ItemBulkService;
+import com.learnreactivespring.service.ItemCache;
+import com.learnreactivespring.service.ItemETags;
+import com.learnreactivespring.service.ItemService;
+import com.learnreactivespring.service.ItemStatsService;
+import com.learnreactivespring.service.ItemTransferService;
+import com.learnreactivespring.service.ItemTypeahead;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
+import static com.learnreactivespring.constants.ItemConstants.ITEM_BULK_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.CONTINUATION_TOKEN_HEADER;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_CACHE_STATS_END_POINT_V1;
 import static com.learnreactivespring.constants.ItemConstants.ITEM_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_EXPORT_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_IMPORT_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_SEARCH_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_STATS_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_SUGGEST_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_CBOR_VALUE;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON_VALUE;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_SMILE_VALUE;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_STREAM_SMILE_VALUE;
 
 @RestController
 @Slf4j
 public class ItemController {
 
     private final ItemReactiveRepository itemReactiveRepository;
+    private final ItemBulkService itemBulkService;
+    private final ItemService itemService;
+    private final ItemCache itemCache;
+    private final FlushBatchingWriter flushBatchingWriter;
+    private final ObjectProvider<ItemTypeahead> itemTypeahead;
+    private final ItemStatsService itemStatsService;
+    private final ItemTransferService itemTransferService;
+    private final BulkBodyReader bulkBodyReader;
 
-    public ItemController(ItemReactiveRepository itemReactiveRepository) {
+    public ItemController(ItemReactiveRepository itemReactiveRepository, ItemBulkService itemBulkService,
+                          ItemService itemService, ItemCache itemCache, FlushBatchingWriter flushBatchingWriter,
+                          ObjectProvider<ItemTypeahead> itemTypeahead, ItemStatsService itemStatsService,
+                          ItemTransferService itemTransferService, BulkBodyReader bulkBodyReader) {
         this.itemReactiveRepository = itemReactiveRepository;
+        this.itemBulkService = itemBulkService;
+        this.itemService = itemService;
+        this.itemCache = itemCache;
+        this.flushBatchingWriter = flushBatchingWriter;
+        this.itemTypeahead = itemTypeahead;
+        this.itemStatsService = itemStatsService;
+        this.itemTransferService = itemTransferService;
+        this.bulkBodyReader = bulkBodyReader;
     }
 
     @GetMapping(ITEM_END_POINT_V1)
-    public Flux<Item> getAllItems() {
-        return itemReactiveRepository.findAll();
+    public Mono<ResponseEntity<Flux<Item>>> getAllItems(@RequestParam MultiValueMap<String, String> params) {
+        if (!ItemPageRequest.isPaged(params)) {
+            return Mono.just(ResponseEntity.ok(itemReactiveRepository.findAll()));
+        }
+        return itemService.getItemsPage(params)
+                .map(itemPage -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (itemPage.getContinuationToken() != null) {
+                        response.header(CONTINUATION_TOKEN_HEADER, itemPage.getContinuationToken());
+                    }
+                    return response.body(Flux.fromIterable(itemPage.getItems()));
+                });
+    }
+
+    @GetMapping(value = ITEM_END_POINT_V1,
+            produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Mono<Void> streamAllItems(@RequestParam MultiValueMap<String, String> params, ServerWebExchange exchange) {
+        MediaType mediaType = flushBatchingWriter.selectMediaType(exchange.getRequest().getHeaders().getAccept());
+        ServerHttpResponse response = exchange.getResponse();
+        if (!ItemPageRequest.isPaged(params)) {
+            return flushBatchingWriter.write(itemReactiveRepository.findAll(), mediaType, response);
+        }
+        return itemService.getItemsPage(params)
+                .flatMap(itemPage -> {
+                    if (itemPage.getContinuationToken() != null) {
+                        response.getHeaders().set(CONTINUATION_TOKEN_HEADER, itemPage.getContinuationToken());
+                    }
+                    return flushBatchingWriter.write(Flux.fromIterable(itemPage.getItems()), mediaType, response);
+                });
+    }
+
+    @GetMapping(ITEM_SEARCH_END_POINT_V1)
+    public Flux<Item> searchItems(@RequestParam MultiValueMap<String, String> params) {
+        return itemService.searchItems(params);
     }
 
+    @GetMapping(value = ITEM_SEARCH_END_POINT_V1, params = ItemTextSearchQuery.QUERY)
+    public Flux<ItemSearchHit> searchItemsText(@RequestParam MultiValueMap<String, String> params) {
+        return itemService.searchItemsText(params);
+    }
+
+    @GetMapping(ITEM_SUGGEST_END_POINT_V1)
+    public Mono<ResponseEntity<List<ItemSuggestion>>> suggestItems(@RequestParam MultiValueMap<String, String> params) {
+        ItemTypeahead typeahead = itemTypeahead.getIfAvailable();
+        if (typeahead == null) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        }
+        return Mono.fromCallable(() -> ResponseEntity.ok(typeahead.suggest(params)));
+    }
+
+    @GetMapping(ITEM_STATS_END_POINT_V1)
+    public Mono<ItemStats> getStats(@RequestParam MultiValueMap<String, String> params) {
+        return itemStatsService.getStats(params);
+    }
+
+    @GetMapping(value = ITEM_EXPORT_END_POINT_V1, produces = APPLICATION_NDJSON_VALUE)
+    public Mono<Void> exportItems(@RequestParam(required = false) String after, ServerWebExchange exchange) {
+        return flushBatchingWriter.write(itemTransferService.exportItems(after), APPLICATION_NDJSON, exchange.getResponse());
+    }
+
+    // The ETag on the entity lets the result handler answer a matching If-None-Match with 304 and skip serialization.
     @GetMapping(ITEM_END_POINT_V1 + "/{id}")
     public Mono<ResponseEntity<Item>> getOneItem(@PathVariable String id) {
-        return itemReactiveRepository.findById(id)
-                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+        return itemService.getItem(id)
+                .map(item -> ResponseEntity.ok().eTag(ItemETags.eTag(item)).body(item))
                 .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -42,25 +157,42 @@ public class ItemController {
     @PostMapping(ITEM_END_POINT_V1)
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<Item> createItem(@RequestBody Item item) {
-        return itemReactiveRepository.save(item);
+        return itemService.createItem(item);
+    }
+
+    @PostMapping(value = ITEM_BULK_END_POINT_V1,
+            consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE,
+                    APPLICATION_SMILE_VALUE, APPLICATION_STREAM_SMILE_VALUE, APPLICATION_CBOR_VALUE},
+            produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE,
+                    APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<ItemBulkResult> createItems(ServerHttpRequest request) {
+        return itemBulkService.saveAll(bulkBodyReader.read(request));
+    }
+
+    @PostMapping(value = ITEM_IMPORT_END_POINT_V1,
+            consumes = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE},
+            produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Flux<ItemImportProgress> importItems(ServerHttpRequest request) {
+        return itemTransferService.importItems(bulkBodyReader.read(request));
     }
 
     @DeleteMapping(ITEM_END_POINT_V1 + "/{id}")
     public Mono<Void> deleteItem(@PathVariable String id){
-        return itemReactiveRepository.deleteById(id);
+        return itemService.deleteItem(id);
     }
 
     @PutMapping(ITEM_END_POINT_V1 + "/{id}")
     public Mono<ResponseEntity<Item>> updateItem(@PathVariable String id,
-                                                 @RequestBody Item newItem) {
-        return itemReactiveRepository.findById(id)
-        .flatMap(currentItem -> {
-            currentItem.setPrice(newItem.getPrice());
-            currentItem.setDescription(newItem.getDescription());
-            return itemReactiveRepository.save(currentItem);
-        })
-        .map(updatedItem -> new ResponseEntity<>(updatedItem, HttpStatus.OK))
+                                                 @RequestBody Item newItem,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return itemService.updateItem(id, newItem, ifMatch)
+        .map(updatedItem -> ResponseEntity.ok().eTag(ItemETags.eTag(updatedItem)).body(updatedItem))
         .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @GetMapping(ITEM_CACHE_STATS_END_POINT_V1)
+    public Mono<ItemCacheStats> getCacheStats() {
+        return Mono.fromSupplier(itemCache::stats);
+    }
+
 }
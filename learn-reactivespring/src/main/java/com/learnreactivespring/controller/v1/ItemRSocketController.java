@@ -0,0 +1,79 @@
+package com.learnreactivespring.controller.v1;
+
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.document.ItemCapped;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import com.learnreactivespring.service.ItemBulkService;
+import com.learnreactivespring.service.ItemService;
+import com.learnreactivespring.service.ItemStreamService;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.learnreactivespring.constants.ItemConstants.ITEM_ALL_ROUTE_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_BULK_ROUTE_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_DELETE_ROUTE_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_GET_ROUTE_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_SAVE_ROUTE_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_STREAM_ROUTE_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_UPDATE_ROUTE_V1;
+
+/**
+ * RSocket routes over the same services as the HTTP endpoints. Request-response for single items, request-stream for
+ * the listing and the capped stream, and a request-channel for bulk ingest, where the requester's items are pulled
+ * only as fast as the bulk writer's demand.
+ */
+@Controller
+public class ItemRSocketController {
+
+    private final ItemReactiveRepository itemReactiveRepository;
+    private final ItemService itemService;
+    private final ItemBulkService itemBulkService;
+    private final ItemStreamService itemStreamService;
+
+    public ItemRSocketController(ItemReactiveRepository itemReactiveRepository, ItemService itemService,
+                                 ItemBulkService itemBulkService, ItemStreamService itemStreamService) {
+        this.itemReactiveRepository = itemReactiveRepository;
+        this.itemService = itemService;
+        this.itemBulkService = itemBulkService;
+        this.itemStreamService = itemStreamService;
+    }
+
+    @MessageMapping(ITEM_GET_ROUTE_V1 + ".{id}")
+    public Mono<Item> getItem(@DestinationVariable String id) {
+        return itemService.getItem(id);
+    }
+
+    @MessageMapping(ITEM_SAVE_ROUTE_V1)
+    public Mono<Item> saveItem(Item item) {
+        return itemService.createItem(item);
+    }
+
+    @MessageMapping(ITEM_UPDATE_ROUTE_V1 + ".{id}")
+    public Mono<Item> updateItem(@DestinationVariable String id, Item item) {
+        return itemService.updateItem(id, item);
+    }
+
+    @MessageMapping(ITEM_DELETE_ROUTE_V1 + ".{id}")
+    public Mono<Void> deleteItem(@DestinationVariable String id) {
+        return itemService.deleteItem(id);
+    }
+
+    @MessageMapping(ITEM_ALL_ROUTE_V1)
+    public Flux<Item> getAllItems() {
+        return itemReactiveRepository.findAll();
+    }
+
+    @MessageMapping(ITEM_STREAM_ROUTE_V1)
+    public Flux<ItemCapped> getItemsStream() {
+        return itemStreamService.getItemsStream();
+    }
+
+    @MessageMapping(ITEM_BULK_ROUTE_V1)
+    public Flux<ItemBulkResult> saveItems(Flux<Item> items) {
+        return itemBulkService.saveAll(items);
+    }
+}
@@ -1,22 +1,47 @@
 package com.learnreactivespring.controller.v1;
 
 import com.learnreactivespring.document.ItemCapped;
-import com.learnreactivespring.repository.ItemReactiveCappedRepository;
+import com.learnreactivespring.dto.ItemChangeEvent;
+import com.learnreactivespring.dto.ItemChangeQuery;
+import com.learnreactivespring.dto.ItemStreamFilter;
+import com.learnreactivespring.service.ItemChangeStreamService;
+import com.learnreactivespring.service.ItemStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 
+import static com.learnreactivespring.constants.ItemConstants.ITEM_CHANGES_END_POINT_V1;
 import static com.learnreactivespring.constants.ItemConstants.ITEM_STREAM_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON_VALUE;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_STREAM_SMILE_VALUE;
 
 @RestController
 public class ItemStreamController {
     @Autowired
-    private ItemReactiveCappedRepository itemReactiveCappedRepository;
+    private ItemStreamService itemStreamService;
 
-    @GetMapping(value = ITEM_STREAM_END_POINT_V1, produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
-    public Flux<ItemCapped> getItemsStream() {
-        return itemReactiveCappedRepository.findItemsBy();
+    @Autowired
+    private ItemChangeStreamService itemChangeStreamService;
+
+    @GetMapping(value = ITEM_STREAM_END_POINT_V1, produces = {MediaType.APPLICATION_STREAM_JSON_VALUE, APPLICATION_STREAM_SMILE_VALUE})
+    public Flux<ItemCapped> getItemsStream(@RequestParam MultiValueMap<String, String> params) {
+        return itemStreamService.getItemsStream(ItemStreamFilter.from(params));
+    }
+
+    @GetMapping(value = ITEM_CHANGES_END_POINT_V1, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ItemChangeEvent>> getItemChangeEvents(@RequestParam MultiValueMap<String, String> params,
+                                                                      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return itemChangeStreamService.getItemChangeServerSentEvents(ItemChangeQuery.from(params, lastEventId));
+    }
+
+    @GetMapping(value = ITEM_CHANGES_END_POINT_V1, produces = {APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_STREAM_JSON_VALUE})
+    public Flux<ItemChangeEvent> getItemChanges(@RequestParam MultiValueMap<String, String> params) {
+        return itemChangeStreamService.getItemChanges(ItemChangeQuery.from(params, null));
     }
 }
@@ -4,15 +4,32 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+// Equality or prefix on description with price range or order, price range with description order, and full-text
+// search on description; created by ItemIndexInitializer since automatic index creation is off.
 @Document
+@CompoundIndexes({
+        @CompoundIndex(name = "description_price", def = "{'description': 1, 'price': 1}"),
+        @CompoundIndex(name = "price_description", def = "{'price': 1, 'description': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Item {
     @Id
     private String id;
+    @TextIndexed
     private String description;
     private Double price;
+    @Version
+    private Long version;
+
+    public Item(String id, String description, Double price) {
+        this(id, description, price, null);
+    }
 }
@@ -0,0 +1,18 @@
+package com.learnreactivespring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemBulkResult {
+    private String id;
+    private Status status;
+    private String error;
+
+    public enum Status {
+        CREATED, UPDATED, FAILED
+    }
+}
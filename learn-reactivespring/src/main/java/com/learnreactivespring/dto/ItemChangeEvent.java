@@ -0,0 +1,20 @@
+package com.learnreactivespring.dto;
+
+import com.learnreactivespring.document.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemChangeEvent {
+    private Operation operation;
+    private String id;
+    private Item item;
+    private String resumeToken;
+
+    public enum Operation {
+        INSERT, UPDATE, REPLACE, DELETE
+    }
+}
@@ -0,0 +1,72 @@
+package com.learnreactivespring.dto;
+
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.json.JsonParseException;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class ItemChangeQuery {
+
+    public static final String DESCRIPTION = "description";
+    public static final String MIN_PRICE = "minPrice";
+    public static final String MAX_PRICE = "maxPrice";
+    public static final String RESUME_AFTER = "resumeAfter";
+
+    private String description;
+    private Double minPrice;
+    private Double maxPrice;
+    private BsonDocument resumeToken;
+
+    /**
+     * Builds the query from request parameters; an SSE {@code Last-Event-ID} is used as the resume token when the
+     * request does not carry one explicitly.
+     */
+    public static ItemChangeQuery from(MultiValueMap<String, String> params, String lastEventId) {
+        Double minPrice = price(params.getFirst(MIN_PRICE));
+        Double maxPrice = price(params.getFirst(MAX_PRICE));
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new InvalidItemQueryException(MIN_PRICE + " must not exceed " + MAX_PRICE);
+        }
+        String description = params.getFirst(DESCRIPTION);
+        String resumeAfter = params.getFirst(RESUME_AFTER);
+        if (!StringUtils.hasText(resumeAfter)) {
+            resumeAfter = lastEventId;
+        }
+        return new ItemChangeQuery(StringUtils.hasText(description) ? description : null, minPrice, maxPrice,
+                StringUtils.hasText(resumeAfter) ? decodeResumeToken(resumeAfter) : null);
+    }
+
+    // Resume tokens are opaque to clients; the server's token document travels as URL-safe Base64 of its JSON form.
+    public static String encodeResumeToken(BsonValue resumeToken) {
+        String json = resumeToken.asDocument().toJson();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BsonDocument decodeResumeToken(String token) {
+        try {
+            return BsonDocument.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException | JsonParseException ex) {
+            throw new InvalidItemQueryException("Invalid resume token");
+        }
+    }
+
+    private static Double price(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidItemQueryException("Invalid price: " + value);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.learnreactivespring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running totals of an import, one per written batch and a last one with done set once the input is exhausted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportProgress {
+    private long processed;
+    private long inserted;
+    private long failed;
+    private String lastId;
+    private String lastError;
+    private long elapsedMillis;
+    private boolean done;
+}
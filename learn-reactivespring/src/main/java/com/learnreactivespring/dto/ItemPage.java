@@ -0,0 +1,16 @@
+package com.learnreactivespring.dto;
+
+import com.learnreactivespring.document.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPage {
+    private List<Item> items;
+    private String continuationToken;
+}
@@ -0,0 +1,138 @@
+package com.learnreactivespring.dto;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItemPageRequest {
+
+    public static final String AFTER = "after";
+    public static final String LIMIT = "limit";
+    public static final String SORT = "sort";
+    public static final String FIELDS = "fields";
+
+    private static final List<String> SORTABLE_FIELDS = Arrays.asList("id", "description", "price");
+    private static final List<String> PROJECTABLE_FIELDS = Arrays.asList("id", "description", "price", "version");
+
+    private String sortField;
+    private Sort.Direction direction;
+    private int limit;
+    private List<String> fields;
+    private String afterId;
+    private Object afterValue;
+
+    public static boolean isPaged(MultiValueMap<String, String> params) {
+        return params.containsKey(AFTER) || params.containsKey(LIMIT)
+                || params.containsKey(SORT) || params.containsKey(FIELDS);
+    }
+
+    public static ItemPageRequest from(MultiValueMap<String, String> params, ItemProperties.Page pageProperties) {
+        String sortField = "id";
+        Sort.Direction direction = Sort.Direction.ASC;
+        String sort = params.getFirst(SORT);
+        if (StringUtils.hasText(sort)) {
+            String[] sortParts = sort.split(",");
+            sortField = sortParts[0].trim();
+            if (sortParts.length > 1) {
+                direction = Sort.Direction.fromOptionalString(sortParts[1].trim())
+                        .orElseThrow(() -> new InvalidItemQueryException("Unknown sort direction: " + sort));
+            }
+        }
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new InvalidItemQueryException("Items can only be sorted by " + SORTABLE_FIELDS);
+        }
+
+        int limit = pageProperties.getDefaultLimit();
+        String limitParam = params.getFirst(LIMIT);
+        if (StringUtils.hasText(limitParam)) {
+            try {
+                limit = Integer.parseInt(limitParam);
+            } catch (NumberFormatException ex) {
+                throw new InvalidItemQueryException("Invalid limit: " + limitParam);
+            }
+            if (limit < 1) {
+                throw new InvalidItemQueryException("Invalid limit: " + limitParam);
+            }
+        }
+        limit = Math.min(limit, pageProperties.getMaxLimit());
+
+        List<String> fields = Collections.emptyList();
+        String fieldsParam = params.getFirst(FIELDS);
+        if (StringUtils.hasText(fieldsParam)) {
+            fields = new ArrayList<>();
+            for (String field : StringUtils.commaDelimitedListToStringArray(fieldsParam)) {
+                if (!PROJECTABLE_FIELDS.contains(field.trim())) {
+                    throw new InvalidItemQueryException("Items can only be projected to " + PROJECTABLE_FIELDS);
+                }
+                fields.add(field.trim());
+            }
+        }
+
+        ItemPageRequest pageRequest = new ItemPageRequest(sortField, direction, limit, fields, null, null);
+        String after = params.getFirst(AFTER);
+        if (StringUtils.hasText(after)) {
+            pageRequest.resumeFrom(after);
+        }
+        return pageRequest;
+    }
+
+    // The token pins sort field and direction so that a follow-up request cannot change the key under the cursor.
+    // A null sort value leaves the last part out, so it stays distinct from an empty description.
+    public String continuationToken(Item lastItem) {
+        Object value = sortValue(lastItem);
+        String token = sortField + "|" + direction + "|" + lastItem.getId() + (value == null ? "" : "|" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void resumeFrom(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidItemQueryException("Invalid continuation token");
+        }
+        if (parts.length < 3 || !SORTABLE_FIELDS.contains(parts[0])) {
+            throw new InvalidItemQueryException("Invalid continuation token");
+        }
+        this.sortField = parts[0];
+        this.direction = Sort.Direction.fromOptionalString(parts[1])
+                .orElseThrow(() -> new InvalidItemQueryException("Invalid continuation token"));
+        this.afterId = parts[2];
+        if (parts.length == 3) {
+            this.afterValue = null;
+        } else if ("price".equals(sortField)) {
+            try {
+                this.afterValue = Double.valueOf(parts[3]);
+            } catch (NumberFormatException ex) {
+                throw new InvalidItemQueryException("Invalid continuation token");
+            }
+        } else if ("description".equals(sortField)) {
+            this.afterValue = parts[3];
+        }
+    }
+
+    private Object sortValue(Item item) {
+        switch (sortField) {
+            case "description":
+                return item.getDescription();
+            case "price":
+                return item.getPrice();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.learnreactivespring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Prices from lowerBound inclusive to upperBound exclusive; the bucket without bounds holds items outside all of them.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPriceBucket {
+    private Double lowerBound;
+    private Double upperBound;
+    private long count;
+}
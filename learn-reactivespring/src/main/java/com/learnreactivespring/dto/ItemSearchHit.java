@@ -0,0 +1,18 @@
+package com.learnreactivespring.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.learnreactivespring.document.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Serialized as the item itself plus score and highlight, so clients that read items can read hits unchanged.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSearchHit {
+    @JsonUnwrapped
+    private Item item;
+    private Double score;
+    private String highlight;
+}
@@ -0,0 +1,123 @@
+package com.learnreactivespring.dto;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Item search by exact description, description prefix and price range. Every combination has one of the compound
+ * indexes declared on {@link com.learnreactivespring.document.Item} as a leading key, so no search scans the collection.
+ */
+@Data
+@AllArgsConstructor
+public class ItemSearchQuery {
+
+    public static final String DESCRIPTION = "description";
+    public static final String DESCRIPTION_PREFIX = "descriptionPrefix";
+    public static final String MIN_PRICE = "minPrice";
+    public static final String MAX_PRICE = "maxPrice";
+    public static final String SORT = "sort";
+    public static final String LIMIT = "limit";
+
+    private static final List<String> SORTABLE_FIELDS = Arrays.asList("description", "price");
+
+    private String description;
+    private String descriptionPrefix;
+    private Double minPrice;
+    private Double maxPrice;
+    private String sortField;
+    private Sort.Direction direction;
+    private int limit;
+
+    public static ItemSearchQuery from(MultiValueMap<String, String> params, ItemProperties.Page pageProperties) {
+        String description = params.getFirst(DESCRIPTION);
+        String descriptionPrefix = params.getFirst(DESCRIPTION_PREFIX);
+        if (StringUtils.hasLength(description) && StringUtils.hasLength(descriptionPrefix)) {
+            throw new InvalidItemQueryException(DESCRIPTION + " and " + DESCRIPTION_PREFIX + " cannot be combined");
+        }
+        Double minPrice = price(params.getFirst(MIN_PRICE));
+        Double maxPrice = price(params.getFirst(MAX_PRICE));
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new InvalidItemQueryException(MIN_PRICE + " must not exceed " + MAX_PRICE);
+        }
+        if (!StringUtils.hasLength(description) && !StringUtils.hasLength(descriptionPrefix) && minPrice == null && maxPrice == null) {
+            throw new InvalidItemQueryException("Search needs one of " + DESCRIPTION + ", " + DESCRIPTION_PREFIX + ", "
+                    + MIN_PRICE + " or " + MAX_PRICE);
+        }
+
+        // Without an explicit sort, results come back in the order of the index that serves the query.
+        String sortField = StringUtils.hasLength(descriptionPrefix) ? "description" : "price";
+        Sort.Direction direction = Sort.Direction.ASC;
+        String sort = params.getFirst(SORT);
+        if (StringUtils.hasText(sort)) {
+            String[] sortParts = sort.split(",");
+            sortField = sortParts[0].trim();
+            if (sortParts.length > 1) {
+                direction = Sort.Direction.fromOptionalString(sortParts[1].trim())
+                        .orElseThrow(() -> new InvalidItemQueryException("Unknown sort direction: " + sort));
+            }
+        }
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new InvalidItemQueryException("Search results can only be sorted by " + SORTABLE_FIELDS);
+        }
+
+        int limit = pageProperties.getDefaultLimit();
+        String limitParam = params.getFirst(LIMIT);
+        if (StringUtils.hasText(limitParam)) {
+            try {
+                limit = Integer.parseInt(limitParam);
+            } catch (NumberFormatException ex) {
+                throw new InvalidItemQueryException("Invalid limit: " + limitParam);
+            }
+            if (limit < 1) {
+                throw new InvalidItemQueryException("Invalid limit: " + limitParam);
+            }
+        }
+
+        return new ItemSearchQuery(StringUtils.hasLength(description) ? description : null,
+                StringUtils.hasLength(descriptionPrefix) ? descriptionPrefix : null,
+                minPrice, maxPrice, sortField, direction, Math.min(limit, pageProperties.getMaxLimit()));
+    }
+
+    // The prefix is an anchored, case-sensitive regex, the only regex shape Mongo turns into index bounds.
+    public Query query() {
+        Query query = new Query();
+        if (description != null) {
+            query.addCriteria(Criteria.where("description").is(description));
+        } else if (descriptionPrefix != null) {
+            query.addCriteria(Criteria.where("description").regex("^" + Pattern.quote(descriptionPrefix)));
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price.lte(maxPrice);
+            }
+            query.addCriteria(price);
+        }
+        return query.with(Sort.by(direction, sortField)).limit(limit);
+    }
+
+    private static Double price(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidItemQueryException("Invalid price: " + value);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.learnreactivespring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemStats {
+
+    public static final String AGGREGATION = "aggregation";
+    public static final String SUMMARY = "summary";
+
+    private long count;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double avgPrice;
+    private List<ItemPriceBucket> priceHistogram;
+    private String source;
+}
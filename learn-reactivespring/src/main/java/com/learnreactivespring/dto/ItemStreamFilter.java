@@ -0,0 +1,127 @@
+package com.learnreactivespring.dto;
+
+import com.learnreactivespring.document.ItemCapped;
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Subscriber-side predicates for the item stream. Equal filters are interchangeable, so subscribers with the same
+ * filter can share one tailable cursor; {@link #query(String)} and {@link #predicate()} express the same condition for
+ * the database and for an already running stream.
+ */
+@Data
+@AllArgsConstructor
+public class ItemStreamFilter {
+
+    public static final String MIN_PRICE = "minPrice";
+    public static final String MAX_PRICE = "maxPrice";
+    public static final String DESCRIPTION_PREFIX = "descriptionPrefix";
+    public static final String IDS = "ids";
+
+    private static final ItemStreamFilter NONE = new ItemStreamFilter(null, null, null, Collections.emptySet());
+
+    private Double minPrice;
+    private Double maxPrice;
+    private String descriptionPrefix;
+    private Set<String> ids;
+
+    public static ItemStreamFilter none() {
+        return NONE;
+    }
+
+    public static ItemStreamFilter from(MultiValueMap<String, String> params) {
+        Double minPrice = price(params.getFirst(MIN_PRICE));
+        Double maxPrice = price(params.getFirst(MAX_PRICE));
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new InvalidItemQueryException(MIN_PRICE + " must not exceed " + MAX_PRICE);
+        }
+        String descriptionPrefix = params.getFirst(DESCRIPTION_PREFIX);
+        Set<String> ids = new LinkedHashSet<>();
+        List<String> idParams = params.getOrDefault(IDS, Collections.emptyList());
+        for (String idParam : idParams) {
+            for (String id : StringUtils.commaDelimitedListToStringArray(idParam)) {
+                if (StringUtils.hasText(id)) {
+                    ids.add(id.trim());
+                }
+            }
+        }
+        return new ItemStreamFilter(minPrice, maxPrice, StringUtils.hasLength(descriptionPrefix) ? descriptionPrefix : null, ids);
+    }
+
+    public boolean isEmpty() {
+        return minPrice == null && maxPrice == null && descriptionPrefix == null && ids.isEmpty();
+    }
+
+    // Anchored, case-sensitive prefix match so the tailable query and the in-memory predicate agree.
+    public Query query(String afterId) {
+        Query query = new Query();
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) {
+                price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price.lte(maxPrice);
+            }
+            query.addCriteria(price);
+        }
+        if (descriptionPrefix != null) {
+            query.addCriteria(Criteria.where("description").regex("^" + Pattern.quote(descriptionPrefix)));
+        }
+        if (!ids.isEmpty() || afterId != null) {
+            Criteria id = Criteria.where("id");
+            if (!ids.isEmpty()) {
+                id.in(ids);
+            }
+            if (afterId != null) {
+                id.gt(afterId);
+            }
+            query.addCriteria(id);
+        }
+        return query;
+    }
+
+    public Predicate<ItemCapped> predicate() {
+        Predicate<ItemCapped> predicate = itemCapped -> true;
+        if (minPrice != null) {
+            double min = minPrice;
+            predicate = predicate.and(itemCapped -> itemCapped.getPrice() != null && itemCapped.getPrice() >= min);
+        }
+        if (maxPrice != null) {
+            double max = maxPrice;
+            predicate = predicate.and(itemCapped -> itemCapped.getPrice() != null && itemCapped.getPrice() <= max);
+        }
+        if (descriptionPrefix != null) {
+            String prefix = descriptionPrefix;
+            predicate = predicate.and(itemCapped -> itemCapped.getDescription() != null && itemCapped.getDescription().startsWith(prefix));
+        }
+        if (!ids.isEmpty()) {
+            Set<String> idSet = ids;
+            predicate = predicate.and(itemCapped -> idSet.contains(itemCapped.getId()));
+        }
+        return predicate;
+    }
+
+    private static Double price(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidItemQueryException("Invalid price: " + value);
+        }
+    }
+}
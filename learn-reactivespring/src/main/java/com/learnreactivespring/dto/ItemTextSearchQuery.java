@@ -0,0 +1,107 @@
+package com.learnreactivespring.dto;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text search on the description text index, best matches first. The text is handed to Mongo as is, so quoted
+ * phrases and -negated terms work; {@link #highlight(String)} marks the words that matched a positive term.
+ */
+@Data
+@AllArgsConstructor
+public class ItemTextSearchQuery {
+
+    public static final String QUERY = "q";
+    public static final String PAGE = "page";
+    public static final String LIMIT = "limit";
+    public static final String SCORE = "score";
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private String text;
+    private int page;
+    private int limit;
+
+    public static ItemTextSearchQuery from(MultiValueMap<String, String> params, ItemProperties.Page pageProperties) {
+        String text = params.getFirst(QUERY);
+        if (!StringUtils.hasText(text)) {
+            throw new InvalidItemQueryException(QUERY + " must not be blank");
+        }
+        int page = number(params.getFirst(PAGE), 0, PAGE);
+        int limit = Math.min(number(params.getFirst(LIMIT), pageProperties.getDefaultLimit(), LIMIT), pageProperties.getMaxLimit());
+        if (limit < 1) {
+            throw new InvalidItemQueryException("Invalid limit: " + params.getFirst(LIMIT));
+        }
+        return new ItemTextSearchQuery(text.trim(), page, limit);
+    }
+
+    public TextQuery query() {
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(text))
+                .sortByScore()
+                .includeScore(SCORE);
+        query.skip((long) page * limit).limit(limit);
+        return query;
+    }
+
+    // Mongo matches on stems, so a word counts when it and a term share a prefix of at least the shorter of the two.
+    public String highlight(String description) {
+        if (description == null) {
+            return null;
+        }
+        List<String> terms = terms();
+        StringBuilder highlight = new StringBuilder();
+        Matcher word = WORD.matcher(description);
+        int last = 0;
+        while (word.find()) {
+            String candidate = word.group().toLowerCase(Locale.ROOT);
+            if (terms.stream().anyMatch(term -> candidate.startsWith(term) || term.startsWith(candidate))) {
+                highlight.append(HtmlUtils.htmlEscape(description.substring(last, word.start())))
+                        .append("<em>").append(HtmlUtils.htmlEscape(word.group())).append("</em>");
+                last = word.end();
+            }
+        }
+        return highlight.append(HtmlUtils.htmlEscape(description.substring(last))).toString();
+    }
+
+    private List<String> terms() {
+        List<String> terms = new ArrayList<>();
+        for (String term : text.split("\\s+")) {
+            if (term.startsWith("-")) {
+                continue;
+            }
+            Matcher word = WORD.matcher(term);
+            while (word.find()) {
+                terms.add(word.group().toLowerCase(Locale.ROOT));
+            }
+        }
+        return terms;
+    }
+
+    private static int number(String value, int defaultValue, String name) {
+        if (!StringUtils.hasText(value)) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 0) {
+                throw new InvalidItemQueryException("Invalid " + name + ": " + value);
+            }
+            return number;
+        } catch (NumberFormatException ex) {
+            throw new InvalidItemQueryException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -9,6 +9,36 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 @ControllerAdvice
 @Slf4j
 public class ControllerExceptionHandler {
+    @ExceptionHandler(ItemVersionConflictException.class)
+    public ResponseEntity<String> handlerItemVersionConflictException(ItemVersionConflictException ex) {
+        log.warn("Exception caught in handlerItemVersionConflictException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ItemAlreadyExistsException.class)
+    public ResponseEntity<String> handlerItemAlreadyExistsException(ItemAlreadyExistsException ex) {
+        log.warn("Exception caught in handlerItemAlreadyExistsException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ItemPreconditionFailedException.class)
+    public ResponseEntity<String> handlerItemPreconditionFailedException(ItemPreconditionFailedException ex) {
+        log.warn("Exception caught in handlerItemPreconditionFailedException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidItemQueryException.class)
+    public ResponseEntity<String> handlerInvalidItemQueryException(InvalidItemQueryException ex) {
+        log.warn("Exception caught in handlerInvalidItemQueryException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ItemImportRejectedException.class)
+    public ResponseEntity<String> handlerItemImportRejectedException(ItemImportRejectedException ex) {
+        log.warn("Exception caught in handlerItemImportRejectedException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handlerRuntimeException(RuntimeException ex) {
         log.error("Exception caught in handlerRuntimeException: {}", ex);
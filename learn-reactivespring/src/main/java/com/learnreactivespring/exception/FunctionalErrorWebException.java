@@ -1,12 +1,12 @@
 package com.learnreactivespring.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.web.ResourceProperties;
 import org.springframework.boot.autoconfigure.web.reactive.error.AbstractErrorWebExceptionHandler;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.context.ApplicationContext;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.stereotype.Component;
@@ -16,6 +16,7 @@ import reactor.core.publisher.Mono;
 import java.util.Map;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
 @Slf4j
 public class FunctionalErrorWebException extends AbstractErrorWebExceptionHandler {
 
@@ -34,7 +35,7 @@ public class FunctionalErrorWebException extends AbstractErrorWebExceptionHandle
     private Mono<ServerResponse> renderErrorResponse(ServerRequest serverRequest) {
         Map<String, Object> errorAttributesMap = getErrorAttributes(serverRequest, ErrorAttributeOptions.of(ErrorAttributeOptions.Include.MESSAGE));
         log.info("errorAttributesMap : " + errorAttributesMap);
-        return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR)
+        return ServerResponse.status(ItemErrorStatus.of(getError(serverRequest)))
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(errorAttributesMap.get("message"));
     }
@@ -0,0 +1,7 @@
+package com.learnreactivespring.exception;
+
+public class InvalidItemQueryException extends RuntimeException {
+    public InvalidItemQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.learnreactivespring.exception;
+
+public class ItemAlreadyExistsException extends RuntimeException {
+    public ItemAlreadyExistsException(String id) {
+        super("Item " + id + " already exists");
+    }
+}
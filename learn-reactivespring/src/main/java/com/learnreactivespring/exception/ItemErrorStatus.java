@@ -0,0 +1,33 @@
+package com.learnreactivespring.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The status an exception that escapes a functional handler is answered with, shared by FunctionalErrorWebException
+ * and the route metrics so that both agree on it; ControllerExceptionHandler maps the same exceptions the same way.
+ */
+public final class ItemErrorStatus {
+
+    private ItemErrorStatus() {
+    }
+
+    public static HttpStatus of(Throwable ex) {
+        if (ex instanceof ResponseStatusException) {
+            return ((ResponseStatusException) ex).getStatus();
+        }
+        if (ex instanceof InvalidItemQueryException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (ex instanceof ItemAlreadyExistsException || ex instanceof ItemVersionConflictException) {
+            return HttpStatus.CONFLICT;
+        }
+        if (ex instanceof ItemPreconditionFailedException) {
+            return HttpStatus.PRECONDITION_FAILED;
+        }
+        if (ex instanceof ItemImportRejectedException) {
+            return HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+}
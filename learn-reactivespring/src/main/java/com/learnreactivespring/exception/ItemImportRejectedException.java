@@ -0,0 +1,7 @@
+package com.learnreactivespring.exception;
+
+public class ItemImportRejectedException extends RuntimeException {
+    public ItemImportRejectedException(int maxConcurrentImports) {
+        super("Already running " + maxConcurrentImports + " imports, retry later");
+    }
+}
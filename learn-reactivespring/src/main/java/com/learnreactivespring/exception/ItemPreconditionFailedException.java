@@ -0,0 +1,7 @@
+package com.learnreactivespring.exception;
+
+public class ItemPreconditionFailedException extends RuntimeException {
+    public ItemPreconditionFailedException(String id, String ifMatch) {
+        super("Item " + id + " does not match " + ifMatch);
+    }
+}
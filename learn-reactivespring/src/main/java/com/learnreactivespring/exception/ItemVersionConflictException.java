@@ -0,0 +1,7 @@
+package com.learnreactivespring.exception;
+
+public class ItemVersionConflictException extends RuntimeException {
+    public ItemVersionConflictException(String id, Long version) {
+        super("Item " + id + " is no longer at version " + version);
+    }
+}
@@ -0,0 +1,51 @@
+package com.learnreactivespring.flow;
+
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Size-or-time batching that respects downstream demand. bufferTimeout and windowTimeout both signal an overflow
+ * error when their timer fires while downstream has nothing requested, which a slow writer or a slow reader makes
+ * likely; here the timer is a tick merged into the elements and dropped while there is no demand.
+ */
+public final class Batches {
+
+    private Batches() {
+    }
+
+    /**
+     * Batches of up to size elements; a non-empty batch is also cut on every tick of interval.
+     */
+    public static <T> Flux<List<T>> bySizeOrInterval(Flux<T> elements, int size, Duration interval) {
+        return Flux.defer(() -> {
+            // Items since the last cut; a tick with none pending is dropped rather than left open in a buffer.
+            int[] pending = {0};
+            return elements.publish(shared -> Flux.merge(
+                    shared.map(Optional::of),
+                    Flux.interval(interval)
+                            .onBackpressureDrop()
+                            .map(tick -> Optional.<T>empty())
+                            .takeUntilOther(shared.then())))
+                    .filter(element -> element.isPresent() || pending[0] > 0)
+                    .bufferUntil(element -> {
+                        boolean cut = element.isPresent() ? ++pending[0] >= size : pending[0] > 0;
+                        if (cut) {
+                            pending[0] = 0;
+                        }
+                        return cut;
+                    })
+                    .map(Batches::present)
+                    .filter(batch -> !batch.isEmpty());
+        });
+    }
+
+    private static <T> List<T> present(List<Optional<T>> elements) {
+        List<T> batch = new ArrayList<>(elements.size());
+        elements.forEach(element -> element.ifPresent(batch::add));
+        return batch;
+    }
+}
@@ -0,0 +1,149 @@
+package com.learnreactivespring.flow;
+
+import com.learnreactivespring.config.ItemProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Slow-consumer policy for long-lived streams, applied per connection so that a client that stops reading only ever
+ * holds item.stream.buffer-size elements (see {@link ItemProperties.Stream.OverflowStrategy}). Elements waiting and
+ * dropped are metered per stream, and their per-connection peaks as distributions, to keep connection ids out of tags.
+ */
+@Component
+@Slf4j
+public class StreamFlowControl {
+
+    static final String CONNECTIONS = "item.stream.connections";
+    static final String BUFFERED = "item.stream.buffered";
+    static final String DROPPED = "item.stream.dropped";
+    static final String DISCONNECTS = "item.stream.disconnects";
+    static final String CONNECTION_BUFFERED = "item.stream.connection.buffered";
+    static final String CONNECTION_DROPPED = "item.stream.connection.dropped";
+
+    private final ItemProperties.Stream streamProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, StreamMeters> streamMeters = new ConcurrentHashMap<>();
+
+    public StreamFlowControl(ItemProperties itemProperties, MeterRegistry meterRegistry) {
+        this.streamProperties = itemProperties.getStream();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Flux<T> apply(Flux<T> elements, String stream) {
+        StreamMeters meters = streamMeters.computeIfAbsent(stream, StreamMeters::new);
+        return Flux.defer(() -> {
+            Connection connection = new Connection(meters, capacity());
+            return overflow(elements.doOnNext(element -> connection.buffered()), connection::dropped)
+                    .doOnNext(element -> connection.delivered())
+                    .doOnError(Exceptions::isOverflow, ex -> {
+                        meters.disconnects.increment();
+                        log.info("Closing slow {} stream connection, {} elements waiting", stream, streamProperties.getBufferSize());
+                    })
+                    .doFinally(signal -> connection.close());
+        });
+    }
+
+    private int capacity() {
+        return streamProperties.getOverflowStrategy() == ItemProperties.Stream.OverflowStrategy.LATEST
+                ? 1 : streamProperties.getBufferSize();
+    }
+
+    private <T> Flux<T> overflow(Flux<T> elements, Consumer<T> onDrop) {
+        switch (streamProperties.getOverflowStrategy()) {
+            case LATEST:
+                return elements.onBackpressureBuffer(capacity(), onDrop, BufferOverflowStrategy.DROP_OLDEST);
+            case DISCONNECT:
+                // The buffer's own ERROR strategy only signals once the client requests again, which a stalled one never does.
+                MonoProcessor<Void> lagging = MonoProcessor.create();
+                return elements.onBackpressureBuffer(streamProperties.getBufferSize(), element -> {
+                    onDrop.accept(element);
+                    if (!lagging.isTerminated()) {
+                        lagging.onError(Exceptions.failWithOverflow("Client fell " + streamProperties.getBufferSize() + " elements behind"));
+                    }
+                }, BufferOverflowStrategy.DROP_LATEST)
+                        .takeUntilOther(lagging);
+            default:
+                return elements.onBackpressureBuffer(streamProperties.getBufferSize(), onDrop, BufferOverflowStrategy.DROP_OLDEST);
+        }
+    }
+
+    private class StreamMeters {
+
+        private final AtomicLong connections;
+        private final AtomicLong buffered;
+        private final Counter dropped;
+        private final Counter disconnects;
+        private final DistributionSummary connectionBuffered;
+        private final DistributionSummary connectionDropped;
+
+        StreamMeters(String stream) {
+            this.connections = meterRegistry.gauge(CONNECTIONS, Tags.of("stream", stream), new AtomicLong());
+            this.buffered = meterRegistry.gauge(BUFFERED, Tags.of("stream", stream), new AtomicLong());
+            this.dropped = meterRegistry.counter(DROPPED, "stream", stream);
+            this.disconnects = meterRegistry.counter(DISCONNECTS, "stream", stream);
+            this.connectionBuffered = DistributionSummary.builder(CONNECTION_BUFFERED)
+                    .description("Most elements waiting at once for a single connection")
+                    .tag("stream", stream)
+                    .register(meterRegistry);
+            this.connectionDropped = DistributionSummary.builder(CONNECTION_DROPPED)
+                    .description("Elements dropped for a single connection")
+                    .tag("stream", stream)
+                    .register(meterRegistry);
+        }
+    }
+
+    // Waiting elements are counted on the way into and out of the overflow buffer; whatever is left is released on close.
+    private static class Connection {
+
+        private final StreamMeters meters;
+        private final int capacity;
+        private final AtomicLong buffered = new AtomicLong();
+        private final AtomicLong maxBuffered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        Connection(StreamMeters meters, int capacity) {
+            this.meters = meters;
+            this.capacity = capacity;
+            meters.connections.incrementAndGet();
+        }
+
+        void buffered() {
+            long waiting = buffered.incrementAndGet();
+            meters.buffered.incrementAndGet();
+            // The element that overflows a full buffer is counted until it is dropped but never held.
+            maxBuffered.accumulateAndGet(Math.min(waiting, capacity), Math::max);
+        }
+
+        void delivered() {
+            buffered.decrementAndGet();
+            meters.buffered.decrementAndGet();
+        }
+
+        void dropped(Object element) {
+            buffered.decrementAndGet();
+            meters.buffered.decrementAndGet();
+            dropped.incrementAndGet();
+            meters.dropped.increment();
+        }
+
+        void close() {
+            meters.buffered.addAndGet(-buffered.getAndSet(0));
+            meters.connections.decrementAndGet();
+            meters.connectionBuffered.record(maxBuffered.get());
+            meters.connectionDropped.record(dropped.get());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.learnreactivespring.flow;
+
+import com.learnreactivespring.config.ItemProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+
+/**
+ * Writes a heartbeat frame into streaming responses that have been idle for item.stream.heartbeat-interval, so that
+ * proxies keep the connection open and a client whose socket went away is noticed on the next write. Server-sent
+ * events get a comment line, NDJSON and stream+json a blank line that JSON stream decoders skip; binary streams
+ * have no such frame and are left alone.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class StreamHeartbeatWebFilter implements WebFilter {
+
+    static final String HEARTBEATS = "item.stream.heartbeats";
+
+    private static final byte[] SSE_HEARTBEAT = ":heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JSON_LINES_HEARTBEAT = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Duration heartbeatInterval;
+    private final Counter heartbeats;
+
+    public StreamHeartbeatWebFilter(ItemProperties itemProperties, MeterRegistry meterRegistry) {
+        this.heartbeatInterval = itemProperties.getStream().getHeartbeatInterval();
+        this.heartbeats = meterRegistry.counter(HEARTBEATS);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (heartbeatInterval == null || heartbeatInterval.isZero()) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new HeartbeatResponse(exchange)).build());
+    }
+
+    private static byte[] heartbeatFrame(MediaType contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        if (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+            return SSE_HEARTBEAT;
+        }
+        if (APPLICATION_NDJSON.isCompatibleWith(contentType) || MediaType.APPLICATION_STREAM_JSON.isCompatibleWith(contentType)) {
+            return JSON_LINES_HEARTBEAT;
+        }
+        return null;
+    }
+
+    private class HeartbeatResponse extends ServerHttpResponseDecorator {
+
+        HeartbeatResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+        }
+
+        // Each frame is its own flushed publisher, so a heartbeat never lands inside an element.
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            byte[] heartbeat = heartbeatFrame(getHeaders().getContentType());
+            if (heartbeat == null) {
+                return super.writeAndFlushWith(body);
+            }
+            AtomicLong lastWrite = new AtomicLong(System.nanoTime());
+            Flux<Publisher<? extends DataBuffer>> frames = Flux.<Publisher<? extends DataBuffer>>from(body)
+                    .doOnNext(frame -> lastWrite.set(System.nanoTime()));
+            return super.writeAndFlushWith(frames.publish(shared -> Flux.merge(shared,
+                    Flux.interval(heartbeatInterval)
+                            .onBackpressureDrop()
+                            .filter(tick -> System.nanoTime() - lastWrite.get() >= heartbeatInterval.toNanos())
+                            .<Publisher<? extends DataBuffer>>map(tick -> Mono.fromSupplier(() -> {
+                                heartbeats.increment();
+                                return bufferFactory().wrap(heartbeat);
+                            }))
+                            .takeUntilOther(shared.ignoreElements()))));
+        }
+    }
+}
@@ -1,16 +1,55 @@
 package com.learnreactivespring.handler;
 
+import com.learnreactivespring.codec.BulkBodyReader;
+import com.learnreactivespring.codec.FlushBatchingWriter;
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.constants.ItemMediaTypes;
 import com.learnreactivespring.document.Item;
 import com.learnreactivespring.document.ItemCapped;
-import com.learnreactivespring.repository.ItemReactiveCappedRepository;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.dto.ItemChangeEvent;
+import com.learnreactivespring.dto.ItemChangeQuery;
+import com.learnreactivespring.dto.ItemImportProgress;
+import com.learnreactivespring.dto.ItemPageRequest;
+import com.learnreactivespring.dto.ItemSearchHit;
+import com.learnreactivespring.dto.ItemSearchQuery;
+import com.learnreactivespring.dto.ItemTextSearchQuery;
+import com.learnreactivespring.dto.ItemStreamFilter;
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import com.learnreactivespring.exception.ItemAlreadyExistsException;
+import com.learnreactivespring.exception.ItemPreconditionFailedException;
+import com.learnreactivespring.exception.ItemVersionConflictException;
 import com.learnreactivespring.repository.ItemReactiveRepository;
+import com.learnreactivespring.service.ItemBulkService;
+import com.learnreactivespring.service.ItemChangeStreamService;
+import com.learnreactivespring.service.ItemETags;
+import com.learnreactivespring.service.ItemService;
+import com.learnreactivespring.service.ItemStatsService;
+import com.learnreactivespring.service.ItemStreamService;
+import com.learnreactivespring.service.ItemTransferService;
+import com.learnreactivespring.service.ItemTypeahead;
+import com.learnreactivespring.trace.SignalTracer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Arrays;
+import java.util.List;
+
+import static com.learnreactivespring.constants.ItemConstants.CONTINUATION_TOKEN_HEADER;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_STREAM_SMILE;
+import static com.learnreactivespring.constants.ItemMediaTypes.ITEM_LIST_MEDIA_TYPES;
+import static com.learnreactivespring.constants.ItemMediaTypes.ITEM_MEDIA_TYPES;
+
 @Component
 public class ItemHandler {
 
@@ -18,38 +57,172 @@ public class ItemHandler {
     private ItemReactiveRepository itemReactiveRepository;
 
     @Autowired
-    private ItemReactiveCappedRepository itemReactiveCappedRepository;
+    private ItemStreamService itemStreamService;
+
+    @Autowired
+    private ItemChangeStreamService itemChangeStreamService;
+
+    @Autowired
+    private ItemBulkService itemBulkService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private FlushBatchingWriter flushBatchingWriter;
+
+    @Autowired
+    private BulkBodyReader bulkBodyReader;
+
+    @Autowired
+    private SignalTracer signalTracer;
+
+    @Autowired
+    private ItemProperties itemProperties;
+
+    @Autowired
+    private ObjectProvider<ItemTypeahead> itemTypeahead;
+
+    @Autowired
+    private ItemStatsService itemStatsService;
+
+    @Autowired
+    private ItemTransferService itemTransferService;
+
+    private static final List<MediaType> BULK_RESULT_MEDIA_TYPES = Arrays.asList(APPLICATION_NDJSON, APPLICATION_STREAM_SMILE);
+    private static final List<MediaType> IMPORT_PROGRESS_MEDIA_TYPES = Arrays.asList(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON);
+    private static final List<MediaType> ITEM_STREAM_MEDIA_TYPES =
+            Arrays.asList(MediaType.APPLICATION_STREAM_JSON, APPLICATION_STREAM_SMILE);
+    private static final List<MediaType> ITEM_CHANGE_MEDIA_TYPES =
+            Arrays.asList(MediaType.TEXT_EVENT_STREAM, APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON);
 
     static Mono<ServerResponse> notFound = ServerResponse.notFound().build();
 
     public Mono<ServerResponse> getAllItems(ServerRequest serverRequest) {
-        return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(itemReactiveRepository.findAll(), Item.class);
+        MediaType mediaType = ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_LIST_MEDIA_TYPES);
+        if (!ItemPageRequest.isPaged(serverRequest.queryParams())) {
+            return ServerResponse.ok()
+                    .contentType(mediaType)
+                    .body(itemReactiveRepository.findAll(), Item.class);
+        }
+        return itemService.getItemsPage(serverRequest.queryParams())
+                .flatMap(itemPage -> ServerResponse.ok()
+                        .contentType(mediaType)
+                        .headers(headers -> {
+                            if (itemPage.getContinuationToken() != null) {
+                                headers.set(CONTINUATION_TOKEN_HEADER, itemPage.getContinuationToken());
+                            }
+                        })
+                        .body(Flux.fromIterable(itemPage.getItems()), Item.class))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
+    }
+
+    public Mono<ServerResponse> streamAllItems(ServerRequest serverRequest) {
+        MediaType mediaType = flushBatchingWriter.selectMediaType(serverRequest.headers().accept());
+        if (!ItemPageRequest.isPaged(serverRequest.queryParams())) {
+            return ServerResponse.ok()
+                    .contentType(mediaType)
+                    .body(flushBatchingWriter.inserter(itemReactiveRepository.findAll(), mediaType));
+        }
+        return itemService.getItemsPage(serverRequest.queryParams())
+                .flatMap(itemPage -> ServerResponse.ok()
+                        .contentType(mediaType)
+                        .headers(headers -> {
+                            if (itemPage.getContinuationToken() != null) {
+                                headers.set(CONTINUATION_TOKEN_HEADER, itemPage.getContinuationToken());
+                            }
+                        })
+                        .body(flushBatchingWriter.inserter(Flux.fromIterable(itemPage.getItems()), mediaType)))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
+    }
+
+    public Mono<ServerResponse> searchItems(ServerRequest serverRequest) {
+        MediaType mediaType = ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_LIST_MEDIA_TYPES);
+        return Mono.fromCallable(() -> ItemSearchQuery.from(serverRequest.queryParams(), itemProperties.getPage()))
+                .flatMap(searchQuery -> ServerResponse.ok()
+                        .contentType(mediaType)
+                        .body(itemService.searchItems(searchQuery), Item.class))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
+    }
+
+    public Mono<ServerResponse> searchItemsText(ServerRequest serverRequest) {
+        MediaType mediaType = ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_LIST_MEDIA_TYPES);
+        return Mono.fromCallable(() -> ItemTextSearchQuery.from(serverRequest.queryParams(), itemProperties.getPage()))
+                .flatMap(searchQuery -> ServerResponse.ok()
+                        .contentType(mediaType)
+                        .body(itemService.searchItemsText(searchQuery), ItemSearchHit.class))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
+    }
+
+    public Mono<ServerResponse> suggestItems(ServerRequest serverRequest) {
+        ItemTypeahead typeahead = itemTypeahead.getIfAvailable();
+        if (typeahead == null) {
+            return notFound;
+        }
+        return Mono.fromCallable(() -> typeahead.suggest(serverRequest.queryParams()))
+                .flatMap(suggestions -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(suggestions))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
+    }
+
+    public Mono<ServerResponse> getStats(ServerRequest serverRequest) {
+        return itemStatsService.getStats(serverRequest.queryParams())
+                .flatMap(stats -> ServerResponse.ok()
+                        .contentType(ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_MEDIA_TYPES))
+                        .bodyValue(stats))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
     }
 
     public Mono<ServerResponse> getOneItem(ServerRequest serverRequest) {
         String id = serverRequest.pathVariable("id");
-        Mono<Item> itemMono = itemReactiveRepository.findById(id).log();
+        Mono<Item> itemMono = itemService.getItem(id).transform(signalTracer.mono("ItemHandler.getOneItem"));
 
-        return itemMono.flatMap(item -> ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(item)
-        ).switchIfEmpty(notFound);
+        return itemMono.flatMap(item -> {
+            String eTag = ItemETags.eTag(item);
+            if (serverRequest.exchange().checkNotModified(eTag)) {
+                return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ServerResponse.ok()
+                    .contentType(ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_MEDIA_TYPES))
+                    .eTag(eTag)
+                    .bodyValue(item);
+        }).switchIfEmpty(notFound);
     }
 
     public Mono<ServerResponse> createItem(ServerRequest serverRequest) {
         Mono<Item> itemToBeInserted = serverRequest.bodyToMono(Item.class);
 
-        return itemToBeInserted.flatMap(item -> ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(itemReactiveRepository.save(item), Item.class)
-        );
+        return itemToBeInserted.flatMap(itemService::createItem)
+                .flatMap(item -> ServerResponse.ok()
+                        .contentType(ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_MEDIA_TYPES))
+                        .bodyValue(item))
+                .onErrorResume(ItemAlreadyExistsException.class, ex -> errorResponse(HttpStatus.CONFLICT, ex));
+    }
+
+    public Mono<ServerResponse> createItems(ServerRequest serverRequest) {
+        return ServerResponse.ok()
+                .contentType(ItemMediaTypes.select(serverRequest.headers().accept(), BULK_RESULT_MEDIA_TYPES))
+                .body(itemBulkService.saveAll(serverRequest.body(bulkBodyReader)), ItemBulkResult.class);
+    }
+
+    public Mono<ServerResponse> exportItems(ServerRequest serverRequest) {
+        Flux<Item> items = itemTransferService.exportItems(serverRequest.queryParam("after").orElse(null));
+        return ServerResponse.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(flushBatchingWriter.inserter(items, APPLICATION_NDJSON));
+    }
+
+    // A rejected import fails while the body is written; FunctionalErrorWebException turns that into 429.
+    public Mono<ServerResponse> importItems(ServerRequest serverRequest) {
+        return ServerResponse.ok()
+                .contentType(ItemMediaTypes.select(serverRequest.headers().accept(), IMPORT_PROGRESS_MEDIA_TYPES))
+                .body(itemTransferService.importItems(serverRequest.body(bulkBodyReader)), ItemImportProgress.class);
     }
 
     public Mono<ServerResponse> deleteItem(ServerRequest serverRequest) {
         String id = serverRequest.pathVariable("id");
-        Mono<Void> itemMono = itemReactiveRepository.deleteById(id).log();
+        Mono<Void> itemMono = itemService.deleteItem(id).transform(signalTracer.mono("ItemHandler.deleteItem"));
 
         return ServerResponse.ok()
                 .contentType(MediaType.APPLICATION_JSON)
@@ -58,19 +231,16 @@ public class ItemHandler {
 
     public Mono<ServerResponse> updateItem(ServerRequest serverRequest) {
         String id = serverRequest.pathVariable("id");
+        String ifMatch = serverRequest.headers().asHttpHeaders().getFirst(HttpHeaders.IF_MATCH);
         Mono<Item> updatedItem = serverRequest.bodyToMono(Item.class)
-                .flatMap(item -> {
-                    return itemReactiveRepository.findById(id)
-                            .flatMap(currentItem -> {
-                                currentItem.setDescription(item.getDescription());
-                                currentItem.setPrice(item.getPrice());
-                                return itemReactiveRepository.save(currentItem);
-                            });
-                });
+                .flatMap(item -> itemService.updateItem(id, item, ifMatch));
         return updatedItem.flatMap(item -> ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_JSON)
+                .contentType(ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_MEDIA_TYPES))
+                .eTag(ItemETags.eTag(item))
                 .bodyValue(item))
-                .switchIfEmpty(notFound);
+                .switchIfEmpty(notFound)
+                .onErrorResume(ItemVersionConflictException.class, ex -> errorResponse(HttpStatus.CONFLICT, ex))
+                .onErrorResume(ItemPreconditionFailedException.class, ex -> errorResponse(HttpStatus.PRECONDITION_FAILED, ex));
     }
 
     public Mono<ServerResponse> itemEx(ServerRequest serverRequest) {
@@ -78,8 +248,41 @@ public class ItemHandler {
     }
 
     public Mono<ServerResponse> itemStream(ServerRequest serverRequest) {
+        MediaType mediaType = ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_STREAM_MEDIA_TYPES);
+        return Mono.fromCallable(() -> ItemStreamFilter.from(serverRequest.queryParams()))
+                .flatMap(filter -> ServerResponse.ok()
+                        .contentType(mediaType)
+                        .body(itemStreamService.getItemsStream(filter), ItemCapped.class))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
+    }
+
+    public Mono<ServerResponse> itemChanges(ServerRequest serverRequest) {
+        MediaType mediaType = ItemMediaTypes.select(serverRequest.headers().accept(), ITEM_CHANGE_MEDIA_TYPES);
+        return Mono.fromCallable(() -> ItemChangeQuery.from(serverRequest.queryParams(),
+                serverRequest.headers().firstHeader("Last-Event-ID")))
+                .flatMap(query -> itemChanges(query, mediaType))
+                .onErrorResume(InvalidItemQueryException.class, ItemHandler::badRequest);
+    }
+
+    private static Mono<ServerResponse> badRequest(InvalidItemQueryException ex) {
+        return errorResponse(HttpStatus.BAD_REQUEST, ex);
+    }
+
+    // The status and exception message ControllerExceptionHandler answers the same exceptions with on the annotated routes.
+    private static Mono<ServerResponse> errorResponse(HttpStatus status, Exception ex) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ex.getMessage());
+    }
+
+    private Mono<ServerResponse> itemChanges(ItemChangeQuery query, MediaType mediaType) {
+        if (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(mediaType)) {
+            return ServerResponse.ok()
+                    .contentType(MediaType.TEXT_EVENT_STREAM)
+                    .body(BodyInserters.fromServerSentEvents(itemChangeStreamService.getItemChangeServerSentEvents(query)));
+        }
         return ServerResponse.ok()
-                .contentType(MediaType.APPLICATION_STREAM_JSON)
-                .body(itemReactiveCappedRepository.findItemsBy(), ItemCapped.class);
+                .contentType(mediaType)
+                .body(itemChangeStreamService.getItemChanges(query), ItemChangeEvent.class);
     }
 }
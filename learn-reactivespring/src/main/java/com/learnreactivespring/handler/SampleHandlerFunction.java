@@ -1,5 +1,7 @@
 package com.learnreactivespring.handler;
 
+import com.learnreactivespring.trace.SignalTracer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
@@ -9,12 +11,16 @@ import reactor.core.publisher.Mono;
 
 @Component
 public class SampleHandlerFunction {
+
+    @Autowired
+    private SignalTracer signalTracer;
+
     public Mono<ServerResponse> flux(ServerRequest serverRequest) {
         return ServerResponse.ok()
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(
                         Flux.just(1, 2, 3, 4)
-                                .log(), Integer.class
+                                .transform(signalTracer.flux("SampleHandlerFunction.flux")), Integer.class
                 );
     }
 
@@ -23,7 +29,7 @@ public class SampleHandlerFunction {
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(
                         Mono.just(1)
-                                .log(), Integer.class
+                                .transform(signalTracer.mono("SampleHandlerFunction.mono")), Integer.class
                 );
     }
 }
@@ -1,19 +1,19 @@
 package com.learnreactivespring.initialize;
 
+import com.learnreactivespring.config.ItemProperties;
 import com.learnreactivespring.document.Item;
 import com.learnreactivespring.document.ItemCapped;
 import com.learnreactivespring.repository.ItemReactiveCappedRepository;
-import com.learnreactivespring.repository.ItemReactiveRepository;
-import com.mongodb.reactivestreams.client.MongoCollection;
 import lombok.extern.slf4j.Slf4j;
-import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.core.CollectionOptions;
 import org.springframework.data.mongodb.core.ReactiveMongoOperations;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -21,13 +21,14 @@ import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Seeds the sample items plus item.seed.count synthetic ones and recreates the capped collection behind the item
+ * stream, both without blocking startup; {@link ItemSeedHealthIndicator} reports the node ready once the seed is in.
+ */
 @Component
 @Slf4j
 @Profile("!test")
-public class ItemDataInitializer implements CommandLineRunner {
-
-    @Autowired
-    private ItemReactiveRepository itemReactiveRepository;
+public class ItemDataInitializer implements CommandLineRunner, DisposableBean {
 
     @Autowired
     private ItemReactiveCappedRepository itemReactiveCappedRepository;
@@ -35,17 +36,39 @@ public class ItemDataInitializer implements CommandLineRunner {
     @Autowired
     private ReactiveMongoOperations reactiveMongoOperations;
 
+    @Autowired
+    private ItemSeeder itemSeeder;
+
+    @Autowired
+    private ItemProperties itemProperties;
+
+    private final Disposable.Composite initialization = Disposables.composite();
+
     @Override
     public void run(String... args) {
-        initialDataSetUp();
-        createCappedCollection();
-        dataSetUpforCappedCollection();
+        if (ItemTransferRunner.isTransfer(args)) {
+            log.info("Skipping sample data for the item transfer");
+            return;
+        }
+        // Separate subscriptions, so that neither failing cancels the other; subscribing the seed here holds
+        // readiness back before this method returns.
+        initialization.add(initialDataSetUp()
+                .subscribe(count -> { }, ex -> log.error("Seeding items failed", ex)));
+        initialization.add(createCappedCollection()
+                .thenMany(dataSetUpforCappedCollection())
+                .subscribe(itemCapped -> log.debug("Inserted Item is {}", itemCapped),
+                        ex -> log.error("Setting up the capped collection failed", ex)));
+    }
+
+    @Override
+    public void destroy() {
+        initialization.dispose();
     }
 
-    @Transactional
-    public void createCappedCollection() {
-        reactiveMongoOperations.dropCollection(ItemCapped.class).then().block(); //Not for permanent data
-        reactiveMongoOperations.createCollection(ItemCapped.class, CollectionOptions.empty().capped().size(50000).maxDocuments(20)).then().block();
+    public Mono<Void> createCappedCollection() {
+        return reactiveMongoOperations.dropCollection(ItemCapped.class) //Not for permanent data
+                .then(reactiveMongoOperations.createCollection(ItemCapped.class, CollectionOptions.empty().capped().size(50000).maxDocuments(20)))
+                .then();
     }
 
     public List<Item> data() {
@@ -55,22 +78,13 @@ public class ItemDataInitializer implements CommandLineRunner {
                 new Item("ABC", "Beats HeadPhones", 19.99));
     }
 
-    private void initialDataSetUp() {
-        itemReactiveRepository.deleteAll()
-                .thenMany(Flux.fromIterable(this.data()))
-                .flatMap(itemReactiveRepository::save)
-                .thenMany(itemReactiveRepository.findAll())
-                .subscribe(item -> {
-                    System.out.println("Item inserted from CommandLineRunner: " + item);
-                });
+    private Mono<Long> initialDataSetUp() {
+        return itemSeeder.seed(Flux.fromIterable(data()).concatWith(itemSeeder.generate(itemProperties.getSeed().getCount())));
     }
 
-    private void dataSetUpforCappedCollection() {
+    private Flux<ItemCapped> dataSetUpforCappedCollection() {
         Flux<ItemCapped> itemCappedFlux = Flux.interval(Duration.ofSeconds(1))
                 .map(i -> new ItemCapped(null, "Random Item " + i, (100.00 + i)));
-        itemReactiveCappedRepository.insert(itemCappedFlux)
-                .subscribe(itemCapped -> {
-                    log.info("Inserted Item is " + itemCapped);
-                });
+        return itemReactiveCappedRepository.insert(itemCappedFlux);
     }
 }
@@ -0,0 +1,41 @@
+package com.learnreactivespring.initialize;
+
+import com.learnreactivespring.document.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Creates the indexes declared on {@link Item}. Creating an index that already exists with the same keys is a no-op
+ * in Mongo, so this runs on every start; it is not awaited, and queries fall back to scans until it completes.
+ */
+@Component
+@Slf4j
+public class ItemIndexInitializer implements CommandLineRunner {
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final IndexResolver indexResolver;
+
+    public ItemIndexInitializer(ReactiveMongoOperations reactiveMongoOperations, MongoMappingContext mongoMappingContext) {
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.indexResolver = IndexResolver.create(mongoMappingContext);
+    }
+
+    @Override
+    public void run(String... args) {
+        ensureIndexes()
+                .subscribe(index -> log.info("Ensured index {} on item", index),
+                        ex -> log.error("Creating indexes on item failed", ex));
+    }
+
+    public Flux<String> ensureIndexes() {
+        ReactiveIndexOperations indexOperations = reactiveMongoOperations.indexOps(Item.class);
+        return Flux.fromIterable(indexResolver.resolveIndexFor(Item.class))
+                .concatMap(indexOperations::ensureIndex);
+    }
+}
@@ -0,0 +1,30 @@
+package com.learnreactivespring.initialize;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service while {@link ItemSeeder} is replacing the items and down when the last seed failed, so that a
+ * node that is part of the readiness group only takes traffic once its data is in place.
+ */
+@Component
+public class ItemSeedHealthIndicator implements HealthIndicator {
+
+    private final ItemSeeder itemSeeder;
+
+    public ItemSeedHealthIndicator(ItemSeeder itemSeeder) {
+        this.itemSeeder = itemSeeder;
+    }
+
+    @Override
+    public Health health() {
+        if (itemSeeder.isSeeding()) {
+            return Health.outOfService().withDetail("written", itemSeeder.getWritten()).build();
+        }
+        if (itemSeeder.getLastFailure() != null) {
+            return Health.down().withException(itemSeeder.getLastFailure()).build();
+        }
+        return Health.up().withDetail("seeded", itemSeeder.getLastSeeded()).build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.learnreactivespring.initialize;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.service.ItemBulkService;
+import com.learnreactivespring.service.ItemWriteListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces the item collection with a given set of items, written as unordered insert batches of
+ * item.seed.batch-size with item.seed.concurrency batches in flight, and logs the throughput reached.
+ * {@link #generate(int)} produces any number of synthetic items from item.seed.random-seed, so the same settings
+ * always give the same catalogue. While a seed runs, {@link ItemSeedHealthIndicator} keeps the node out of service.
+ */
+@Component
+@Slf4j
+public class ItemSeeder {
+
+    private static final String[] BRANDS = {"Samsung", "LG", "Apple", "Sony", "Philips", "Bose", "Beats", "Google",
+            "Amazon", "Panasonic", "Lenovo", "Dell"};
+    private static final String[] PRODUCTS = {"TV", "HeadPhones", "Speaker", "Soundbar", "Laptop", "Tablet", "Phone",
+            "Monitor", "Camera", "Watch", "Router", "Projector"};
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final ItemBulkService itemBulkService;
+    private final ItemProperties.Seed seedProperties;
+    private final List<ItemWriteListener> itemWriteListeners;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong written = new AtomicLong();
+    private volatile long lastSeeded;
+    private volatile Throwable lastFailure;
+
+    public ItemSeeder(ReactiveMongoOperations reactiveMongoOperations, ItemBulkService itemBulkService,
+                      ItemProperties itemProperties, List<ItemWriteListener> itemWriteListeners) {
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.itemBulkService = itemBulkService;
+        this.seedProperties = itemProperties.getSeed();
+        this.itemWriteListeners = itemWriteListeners;
+    }
+
+    // Counts as running from subscription on, so a seed started by a runner holds readiness back from the start.
+    public Mono<Long> seed(Flux<Item> items) {
+        return Mono.defer(() -> {
+            running.incrementAndGet();
+            written.set(0);
+            long started = System.nanoTime();
+            return reactiveMongoOperations.remove(new Query(), Item.class)
+                    .doOnSuccess(result -> itemWriteListeners.forEach(ItemWriteListener::cleared))
+                    .thenMany(itemBulkService.writeBatches(items, ItemBulkService.WriteMode.INSERT,
+                            seedProperties.getBatchSize(), seedProperties.getConcurrency()))
+                    .map(this::countCreated)
+                    .reduce(0L, Long::sum)
+                    .doOnNext(count -> {
+                        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                        log.info("Seeded {} items in {} ms ({} items/s)", count, elapsedMillis, count * 1000 / elapsedMillis);
+                        lastSeeded = count;
+                        lastFailure = null;
+                    })
+                    .doOnError(ex -> lastFailure = ex)
+                    .doFinally(signal -> running.decrementAndGet());
+        });
+    }
+
+    // Generated lazily, so a large seed never holds more than the batches in flight.
+    public Flux<Item> generate(int count) {
+        return Flux.<Item, Random>generate(() -> new Random(seedProperties.getRandomSeed()), (random, sink) -> {
+            sink.next(new Item(null,
+                    BRANDS[random.nextInt(BRANDS.length)] + " " + PRODUCTS[random.nextInt(PRODUCTS.length)] + " "
+                            + (100 + random.nextInt(900)),
+                    BigDecimal.valueOf(1 + random.nextDouble() * 1999).setScale(2, RoundingMode.HALF_UP).doubleValue()));
+            return random;
+        }).take(count);
+    }
+
+    public boolean isSeeding() {
+        return running.get() > 0;
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getLastSeeded() {
+        return lastSeeded;
+    }
+
+    public Throwable getLastFailure() {
+        return lastFailure;
+    }
+
+    private long countCreated(List<ItemBulkResult> results) {
+        long created = results.stream().filter(result -> result.getStatus() != ItemBulkResult.Status.FAILED).count();
+        if (created < results.size()) {
+            log.warn("{} of {} seeded items failed, last error: {}", results.size() - created, results.size(),
+                    results.get(results.size() - 1).getError());
+        }
+        written.addAndGet(created);
+        return created;
+    }
+}
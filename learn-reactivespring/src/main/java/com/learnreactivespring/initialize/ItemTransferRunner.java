@@ -0,0 +1,143 @@
+package com.learnreactivespring.initialize;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemImportProgress;
+import com.learnreactivespring.service.ItemTransferService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports or imports the item catalogue from the command line, as NDJSON, gzip-compressed when the file name ends
+ * in .gz, and exits once done:
+ * <pre>
+ *   --item-export=items.ndjson.gz [--item-export-after=&lt;last id of an interrupted export&gt;]
+ *   --item-import=items.ndjson.gz
+ * </pre>
+ * Both stream through {@link ItemTransferService}, so neither side holds more than a batch of items in memory.
+ * {@link com.learnreactivespring.LearnReactivespringApplication#main} starts such a run without the web server and
+ * exits with {@link #getExitCode()}: 1 if the transfer failed or any imported item was rejected.
+ */
+@Component
+@Slf4j
+public class ItemTransferRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    public static final String EXPORT = "item-export";
+    public static final String EXPORT_AFTER = "item-export-after";
+    public static final String IMPORT = "item-import";
+
+    private static final long PROGRESS_LOG_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final ItemTransferService itemTransferService;
+    private final ObjectMapper objectMapper;
+    private final ItemProperties.Transfer transferProperties;
+    private volatile int exitCode;
+
+    public ItemTransferRunner(ItemTransferService itemTransferService, ObjectMapper objectMapper,
+                              ItemProperties itemProperties) {
+        this.itemTransferService = itemTransferService;
+        this.objectMapper = objectMapper;
+        this.transferProperties = itemProperties.getTransfer();
+    }
+
+    public static boolean isTransfer(String... args) {
+        return Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + EXPORT + "=") || arg.startsWith("--" + IMPORT + "="));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!isTransfer(args.getSourceArgs())) {
+            return;
+        }
+        try {
+            if (args.containsOption(EXPORT)) {
+                String after = args.containsOption(EXPORT_AFTER) ? args.getOptionValues(EXPORT_AFTER).get(0) : null;
+                exportTo(Paths.get(args.getOptionValues(EXPORT).get(0)), after);
+            }
+            if (args.containsOption(IMPORT)) {
+                ItemImportProgress progress = importFrom(Paths.get(args.getOptionValues(IMPORT).get(0)));
+                exitCode = progress.getFailed() == 0 ? 0 : 1;
+            }
+        } catch (Exception ex) {
+            log.error("Item transfer failed", ex);
+            exitCode = 1;
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    // The cursor only runs ahead of the file by one export batch; the last id logged resumes an interrupted export.
+    public long exportTo(Path path, String afterId) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Item.class);
+        long count = 0;
+        String lastId = afterId;
+        long lastLog = System.nanoTime();
+        try (OutputStream out = output(path)) {
+            for (Item item : itemTransferService.exportItems(afterId).toIterable(transferProperties.getExportBatchSize())) {
+                out.write(writer.writeValueAsBytes(item));
+                out.write('\n');
+                count++;
+                lastId = item.getId();
+                if (System.nanoTime() - lastLog > PROGRESS_LOG_INTERVAL) {
+                    log.info("Exported {} items to {}, last id {}", count, path, lastId);
+                    lastLog = System.nanoTime();
+                }
+            }
+        }
+        log.info("Exported {} items to {}, last id {}", count, path, lastId);
+        return count;
+    }
+
+    // Lines are parsed on demand as the import asks for more items, on a thread that may block on the file.
+    public ItemImportProgress importFrom(Path path) throws IOException {
+        try (InputStream in = input(path);
+             MappingIterator<Item> lines = objectMapper.readerFor(Item.class).readValues(in)) {
+            Flux<Item> items = Flux.fromIterable(() -> lines).subscribeOn(Schedulers.boundedElastic());
+            long[] lastLog = {System.nanoTime()};
+            ItemImportProgress progress = itemTransferService.importItems(items)
+                    .doOnNext(batch -> {
+                        if (batch.isDone() || System.nanoTime() - lastLog[0] > PROGRESS_LOG_INTERVAL) {
+                            log.info("Imported {} of {} items from {}, {} failed, last error: {}", batch.getInserted(),
+                                    batch.getProcessed(), path, batch.getFailed(), batch.getLastError());
+                            lastLog[0] = System.nanoTime();
+                        }
+                    })
+                    .blockLast();
+            return progress;
+        }
+    }
+
+    private static OutputStream output(Path path) throws IOException {
+        OutputStream out = Files.newOutputStream(path);
+        return new BufferedOutputStream(path.toString().endsWith(".gz") ? new GZIPOutputStream(out) : out);
+    }
+
+    private static InputStream input(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        return new BufferedInputStream(path.toString().endsWith(".gz") ? new GZIPInputStream(in) : in);
+    }
+}
@@ -0,0 +1,64 @@
+package com.learnreactivespring.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-route in-flight gauge and handler time (until the {@link ServerResponse} is ready, before the body is written)
+ * for the functional routes. End-to-end latency is recorded by {@link RouteMetricsWebFilter}.
+ */
+@Component
+public class RouteMetricsHandlerFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    static final String HANDLER = "item.http.server.handler";
+    static final String HANDLER_ACTIVE = "item.http.server.handler.active";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+
+    public RouteMetricsHandlerFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        Tags tags = Tags.of("method", request.methodName(), "uri", route(request));
+        AtomicInteger inFlight = active.computeIfAbsent(request.methodName() + " " + route(request),
+                key -> meterRegistry.gauge(HANDLER_ACTIVE, tags, new AtomicInteger()));
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            return next.handle(request)
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        Timer.builder(HANDLER)
+                                .tags(tags.and("signal", signal.name()))
+                                .publishPercentileHistogram()
+                                .minimumExpectedValue(Duration.ofMillis(1))
+                                .maximumExpectedValue(Duration.ofSeconds(30))
+                                .register(meterRegistry)
+                                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    });
+        });
+    }
+
+    private static String route(ServerRequest request) {
+        return request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE)
+                .map(Object::toString)
+                .orElse("UNKNOWN");
+    }
+}
@@ -0,0 +1,121 @@
+package com.learnreactivespring.metrics;
+
+import com.learnreactivespring.exception.ItemErrorStatus;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.boot.actuate.metrics.web.reactive.server.WebFluxTags;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latency, response size and errors per route template for every exchange, annotated and functional alike
+ * (both expose the matched pattern through {@code HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE}).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RouteMetricsWebFilter implements WebFilter {
+
+    static final String REQUESTS = "item.http.server.requests";
+    static final String RESPONSE_SIZE = "item.http.server.response.size";
+    static final String ERRORS = "item.http.server.errors";
+    static final String ACTIVE = "item.http.server.active";
+
+    private static final Tag CANCELLED = Tag.of("outcome", "CANCELLED");
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger active;
+
+    public RouteMetricsWebFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.active = meterRegistry.gauge(ACTIVE, new AtomicInteger());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        LongAdder bytesWritten = new LongAdder();
+        ServerWebExchange countingExchange = exchange.mutate()
+                .response(new CountingResponse(exchange, bytesWritten))
+                .build();
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            active.incrementAndGet();
+            return chain.filter(countingExchange)
+                    .doOnSuccess(ignored -> record(countingExchange, start, bytesWritten, null, null))
+                    .doOnError(ex -> record(countingExchange, start, bytesWritten, ex, null))
+                    .doOnCancel(() -> record(countingExchange, start, bytesWritten, null, CANCELLED));
+        });
+    }
+
+    private void record(ServerWebExchange exchange, long start, LongAdder bytesWritten, Throwable error, Tag outcome) {
+        active.decrementAndGet();
+        Tags routeTags = Tags.of(WebFluxTags.method(exchange), WebFluxTags.uri(exchange));
+        // An error has not been answered yet; FunctionalErrorWebException will answer it with ItemErrorStatus.
+        HttpStatus errorStatus = error != null ? ItemErrorStatus.of(error) : null;
+        Tag status = errorStatus != null ? Tag.of("status", String.valueOf(errorStatus.value())) : WebFluxTags.status(exchange);
+        Tags tags = routeTags.and(status,
+                outcome != null ? outcome : errorStatus != null ? Outcome.forStatus(errorStatus.value()).asTag() : WebFluxTags.outcome(exchange),
+                WebFluxTags.exception(error));
+
+        Timer.builder(REQUESTS)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder(RESPONSE_SIZE)
+                .baseUnit("bytes")
+                .tags(routeTags.and(status))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(bytesWritten.sum());
+
+        if (status.getValue().startsWith("5")) {
+            meterRegistry.counter(ERRORS, routeTags.and(status, WebFluxTags.exception(error))).increment();
+        }
+    }
+
+    private static class CountingResponse extends ServerHttpResponseDecorator {
+
+        private final LongAdder bytesWritten;
+
+        CountingResponse(ServerWebExchange exchange, LongAdder bytesWritten) {
+            super(exchange.getResponse());
+            this.bytesWritten = bytesWritten;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return super.writeWith(Flux.from(body).doOnNext(this::count));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return super.writeAndFlushWith(Flux.from(body).map(batch -> Flux.from(batch).doOnNext(this::count)));
+        }
+
+        private void count(DataBuffer buffer) {
+            bytesWritten.add(buffer.readableByteCount());
+        }
+    }
+}
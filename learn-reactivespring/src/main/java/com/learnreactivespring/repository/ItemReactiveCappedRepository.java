@@ -8,4 +8,7 @@ import reactor.core.publisher.Flux;
 public interface ItemReactiveCappedRepository extends ReactiveMongoRepository<ItemCapped, String> {
     @Tailable
     Flux<ItemCapped> findItemsBy();
+
+    @Tailable
+    Flux<ItemCapped> findItemsByIdGreaterThan(String id);
 }
@@ -1,6 +1,8 @@
 package com.learnreactivespring.router;
 
+import com.learnreactivespring.dto.ItemTextSearchQuery;
 import com.learnreactivespring.handler.ItemHandler;
+import com.learnreactivespring.metrics.RouteMetricsHandlerFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
@@ -8,36 +10,75 @@ import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import static com.learnreactivespring.constants.ItemConstants.ITEM_BULK_FUNCTIONAL_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_CHANGES_FUNCTIONAL_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_EXPORT_FUNCTIONAL_END_POINT_V1;
 import static com.learnreactivespring.constants.ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_IMPORT_FUNCTIONAL_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_SEARCH_FUNCTIONAL_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_STATS_FUNCTIONAL_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemConstants.ITEM_SUGGEST_FUNCTIONAL_END_POINT_V1;
 import static com.learnreactivespring.constants.ItemConstants.ITEM__STREAM_FUNCTIONAL_END_POINT_V1;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_CBOR;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_SMILE;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_STREAM_SMILE;
 import static org.springframework.web.reactive.function.server.RequestPredicates.*;
 
 @Configuration
 public class ItemRouter {
 
     @Bean
-    public RouterFunction<ServerResponse> itemsRouter(ItemHandler itemHandler) {
+    public RouterFunction<ServerResponse> itemsRouter(ItemHandler itemHandler, RouteMetricsHandlerFilter routeMetricsHandlerFilter) {
         return RouterFunctions
-                .route(GET(ITEM_FUNCTIONAL_END_POINT_V1).and(accept(MediaType.APPLICATION_JSON)), itemHandler::getAllItems)
-                .andRoute(GET(ITEM_FUNCTIONAL_END_POINT_V1 + "/{id}").and(accept(MediaType.APPLICATION_JSON)),
+                .route(GET(ITEM_FUNCTIONAL_END_POINT_V1)
+                                .and(accept(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_STREAM_SMILE, APPLICATION_CBOR)),
+                        itemHandler::getAllItems)
+                .andRoute(GET(ITEM_FUNCTIONAL_END_POINT_V1)
+                                .and(accept(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON, MediaType.TEXT_EVENT_STREAM)),
+                        itemHandler::streamAllItems)
+                .andRoute(GET(ITEM_SEARCH_FUNCTIONAL_END_POINT_V1).and(queryParam(ItemTextSearchQuery.QUERY, q -> true))
+                                .and(accept(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_STREAM_SMILE, APPLICATION_CBOR)),
+                        itemHandler::searchItemsText)
+                .andRoute(GET(ITEM_SEARCH_FUNCTIONAL_END_POINT_V1)
+                                .and(accept(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_STREAM_SMILE, APPLICATION_CBOR)),
+                        itemHandler::searchItems)
+                .andRoute(GET(ITEM_SUGGEST_FUNCTIONAL_END_POINT_V1).and(accept(MediaType.APPLICATION_JSON)),
+                        itemHandler::suggestItems)
+                .andRoute(GET(ITEM_STATS_FUNCTIONAL_END_POINT_V1).and(accept(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR)),
+                        itemHandler::getStats)
+                .andRoute(GET(ITEM_EXPORT_FUNCTIONAL_END_POINT_V1).and(accept(APPLICATION_NDJSON)),
+                        itemHandler::exportItems)
+                .andRoute(GET(ITEM_FUNCTIONAL_END_POINT_V1 + "/{id}").and(accept(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR)),
                         itemHandler::getOneItem)
-                .andRoute(POST(ITEM_FUNCTIONAL_END_POINT_V1).and(accept(MediaType.APPLICATION_JSON)),
+                .andRoute(POST(ITEM_FUNCTIONAL_END_POINT_V1).and(accept(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR)),
                         itemHandler::createItem)
+                .andRoute(POST(ITEM_BULK_FUNCTIONAL_END_POINT_V1).and(accept(APPLICATION_NDJSON, MediaType.APPLICATION_JSON, APPLICATION_STREAM_SMILE)),
+                        itemHandler::createItems)
+                .andRoute(POST(ITEM_IMPORT_FUNCTIONAL_END_POINT_V1).and(accept(APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON)),
+                        itemHandler::importItems)
                 .andRoute(DELETE(ITEM_FUNCTIONAL_END_POINT_V1 + "/{id}").and(accept(MediaType.APPLICATION_JSON)),
                         itemHandler::deleteItem)
-                .andRoute(PUT(ITEM_FUNCTIONAL_END_POINT_V1 + "/{id}").and(accept(MediaType.APPLICATION_JSON)),
-                        itemHandler::updateItem);
+                .andRoute(PUT(ITEM_FUNCTIONAL_END_POINT_V1 + "/{id}").and(accept(MediaType.APPLICATION_JSON, APPLICATION_SMILE, APPLICATION_CBOR)),
+                        itemHandler::updateItem)
+                .filter(routeMetricsHandlerFilter);
     }
 
     @Bean
-    public RouterFunction<ServerResponse> errorRoute(ItemHandler itemHandler) {
+    public RouterFunction<ServerResponse> errorRoute(ItemHandler itemHandler, RouteMetricsHandlerFilter routeMetricsHandlerFilter) {
         return RouterFunctions
-                .route(GET("/fun/runtimeException").and(accept(MediaType.APPLICATION_JSON)), itemHandler::itemEx);
+                .route(GET("/fun/runtimeException").and(accept(MediaType.APPLICATION_JSON)), itemHandler::itemEx)
+                .filter(routeMetricsHandlerFilter);
     }
 
     @Bean
-    public  RouterFunction<ServerResponse> itemsStreamRouter(ItemHandler itemHandler) {
+    public  RouterFunction<ServerResponse> itemsStreamRouter(ItemHandler itemHandler, RouteMetricsHandlerFilter routeMetricsHandlerFilter) {
         return RouterFunctions
-               .route(GET(ITEM__STREAM_FUNCTIONAL_END_POINT_V1).and(accept(MediaType.APPLICATION_JSON)), itemHandler::itemStream);
+               .route(GET(ITEM__STREAM_FUNCTIONAL_END_POINT_V1).and(accept(MediaType.APPLICATION_JSON, APPLICATION_STREAM_SMILE)),
+                       itemHandler::itemStream)
+               .andRoute(GET(ITEM_CHANGES_FUNCTIONAL_END_POINT_V1)
+                               .and(accept(MediaType.TEXT_EVENT_STREAM, APPLICATION_NDJSON, MediaType.APPLICATION_STREAM_JSON)),
+                       itemHandler::itemChanges)
+               .filter(routeMetricsHandlerFilter);
     }
 }
@@ -1,6 +1,7 @@
 package com.learnreactivespring.router;
 
 import com.learnreactivespring.handler.SampleHandlerFunction;
+import com.learnreactivespring.metrics.RouteMetricsHandlerFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
@@ -14,9 +15,10 @@ import static org.springframework.web.reactive.function.server.RequestPredicates
 @Configuration
 public class RouterFunctionConfig {
     @Bean
-    public RouterFunction<ServerResponse> route(SampleHandlerFunction handlerFunction) {
+    public RouterFunction<ServerResponse> route(SampleHandlerFunction handlerFunction, RouteMetricsHandlerFilter routeMetricsHandlerFilter) {
         return RouterFunctions
                 .route(GET("/functional/flux").and(accept(MediaType.APPLICATION_JSON)), handlerFunction::flux)
-                .andRoute(GET("/functional/mono").and(accept(MediaType.APPLICATION_JSON)), handlerFunction::mono);
+                .andRoute(GET("/functional/mono").and(accept(MediaType.APPLICATION_JSON)), handlerFunction::mono)
+                .filter(routeMetricsHandlerFilter);
     }
 }
@@ -0,0 +1,206 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.flow.Batches;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class ItemBulkService {
+
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final ItemProperties.Bulk bulkProperties;
+    private final List<ItemWriteListener> itemWriteListeners;
+
+    public ItemBulkService(ReactiveMongoOperations reactiveMongoOperations, ItemProperties itemProperties,
+                           List<ItemWriteListener> itemWriteListeners) {
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.bulkProperties = itemProperties.getBulk();
+        this.itemWriteListeners = itemWriteListeners;
+    }
+
+    // A partial batch is written after item.bulk.batch-timeout, so items sent one at a time are not held back.
+    public Flux<ItemBulkResult> saveAll(Flux<Item> items) {
+        return Batches.bySizeOrInterval(items, bulkProperties.getBatchSize(), bulkProperties.getBatchTimeout())
+                .flatMapSequential(batch -> writeBatch(batch, WriteMode.UPSERT), bulkProperties.getConcurrency())
+                .flatMapIterable(results -> results);
+    }
+
+    // For loading data sets: up to concurrency batches are in flight at once and their results come out in input
+    // order, one list per batch. Batches are cut by size only, since a load has no use for early partial batches.
+    public Flux<List<ItemBulkResult>> writeBatches(Flux<Item> items, WriteMode mode, int batchSize, int concurrency) {
+        return items.buffer(batchSize)
+                .flatMapSequential(batch -> writeBatch(batch, mode), concurrency);
+    }
+
+    private Mono<List<ItemBulkResult>> writeBatch(List<Item> batch, WriteMode mode) {
+        List<Boolean> inserts = new ArrayList<>(batch.size());
+        for (Item item : batch) {
+            inserts.add(mode == WriteMode.INSERT || item.getId() == null);
+            if (item.getId() == null) {
+                item.setId(new ObjectId().toHexString());
+            }
+        }
+
+        return currentItems(batch, inserts)
+                .flatMap(currentItems -> {
+                    List<WriteModel<Document>> writes = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        writes.add(toWriteModel(batch.get(i), inserts.get(i), currentItems));
+                    }
+                    return reactiveMongoOperations.execute(Item.class, collection -> collection.bulkWrite(writes, UNORDERED))
+                            .next()
+                            .map(result -> toResults(batch, inserts, result, Collections.emptyList()))
+                            .onErrorResume(ex -> bulkWriteException(ex) != null, ex -> {
+                                MongoBulkWriteException bulkWriteException = bulkWriteException(ex);
+                                return Mono.just(toResults(batch, inserts, bulkWriteException.getWriteResult(),
+                                        bulkWriteException.getWriteErrors()));
+                            })
+                            .doOnNext(results -> notifyWritten(batch, results, currentItems));
+                })
+                .onErrorResume(ex -> {
+                    log.error("Bulk write of {} items failed", batch.size(), ex);
+                    List<ItemBulkResult> failed = new ArrayList<>(batch.size());
+                    batch.forEach(item -> failed.add(new ItemBulkResult(item.getId(), ItemBulkResult.Status.FAILED, ex.getMessage())));
+                    notifyWritten(batch, failed, Collections.emptyMap());
+                    return Mono.just(failed);
+                });
+    }
+
+    // execute() translates driver exceptions, so the per-item outcome is found on the cause.
+    private static MongoBulkWriteException bulkWriteException(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException) {
+                return (MongoBulkWriteException) cause;
+            }
+        }
+        return null;
+    }
+
+    // Results line up with the batch. A replace pinned to the version read in currentItems replaced exactly what was
+    // read; one pinned to a version the client sent may have replaced a later write, so its listeners only hear saved.
+    private void notifyWritten(List<Item> batch, List<ItemBulkResult> results, Map<String, Item> currentItems) {
+        for (int i = 0; i < batch.size(); i++) {
+            Item item = batch.get(i);
+            ItemBulkResult.Status status = results.get(i).getStatus();
+            Item current = currentItems.get(item.getId());
+            boolean replacedCurrent = current != null
+                    && (item.getVersion() == null || item.getVersion().equals(current.getVersion()));
+            itemWriteListeners.forEach(listener -> {
+                if (status == ItemBulkResult.Status.FAILED) {
+                    listener.failed(item);
+                } else if (status == ItemBulkResult.Status.CREATED) {
+                    listener.saved(null, item);
+                } else if (replacedCurrent) {
+                    listener.saved(current, item);
+                } else {
+                    listener.saved(item);
+                }
+            });
+        }
+    }
+
+    // The items the batch replaces as they are now, absent for those that do not exist yet; empty when it only inserts.
+    private Mono<Map<String, Item>> currentItems(List<Item> batch, List<Boolean> inserts) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!inserts.get(i)) {
+                ids.add(batch.get(i).getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        Query query = Query.query(Criteria.where("id").in(ids));
+        query.fields().include("version").include("price");
+        return reactiveMongoOperations.find(query, Item.class)
+                .collectMap(Item::getId);
+    }
+
+    // An upsert replaces the whole document, but only in the version this batch read or the client sent; if another
+    // write got there first, the filter misses and the upsert fails on the existing id instead of overwriting it.
+    private WriteModel<Document> toWriteModel(Item item, boolean insert, Map<String, Item> currentItems) {
+        Document document = new Document();
+        reactiveMongoOperations.getConverter().write(item, document);
+        if (insert) {
+            document.putIfAbsent("version", 0L);
+            return new InsertOneModel<>(document);
+        }
+        Object id = document.get("_id");
+        Item current = currentItems.get(item.getId());
+        if (current == null) {
+            document.put("version", 0L);
+            return new ReplaceOneModel<>(Filters.eq("_id", id), document, new ReplaceOptions().upsert(true));
+        }
+        Long expected = item.getVersion() != null ? item.getVersion() : current.getVersion();
+        document.put("version", expected == null ? 0L : expected + 1);
+        return new ReplaceOneModel<>(Filters.and(Filters.eq("_id", id), Filters.eq("version", expected)), document,
+                new ReplaceOptions().upsert(true));
+    }
+
+    private List<ItemBulkResult> toResults(List<Item> batch, List<Boolean> inserts, BulkWriteResult result,
+                                           List<BulkWriteError> writeErrors) {
+        Set<Integer> upserted = new HashSet<>();
+        for (BulkWriteUpsert upsert : result.getUpserts()) {
+            upserted.add(upsert.getIndex());
+        }
+        Map<Integer, String> errors = new HashMap<>();
+        for (BulkWriteError writeError : writeErrors) {
+            int index = writeError.getIndex();
+            boolean conflict = !inserts.get(index) && writeError.getCode() == DUPLICATE_KEY;
+            errors.put(index, conflict ? "Item " + batch.get(index).getId() + " was changed by another write" : writeError.getMessage());
+        }
+
+        List<ItemBulkResult> results = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String id = batch.get(i).getId();
+            if (errors.containsKey(i)) {
+                results.add(new ItemBulkResult(id, ItemBulkResult.Status.FAILED, errors.get(i)));
+            } else if (inserts.get(i) || upserted.contains(i)) {
+                results.add(new ItemBulkResult(id, ItemBulkResult.Status.CREATED, null));
+            } else {
+                results.add(new ItemBulkResult(id, ItemBulkResult.Status.UPDATED, null));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * UPSERT inserts items without id and updates or creates the others; INSERT only inserts, keeping given ids and
+     * versions, and reports an id that already exists as failed.
+     */
+    public enum WriteMode {
+        UPSERT, INSERT
+    }
+}
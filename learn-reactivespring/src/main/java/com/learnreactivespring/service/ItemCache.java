@@ -0,0 +1,74 @@
+package com.learnreactivespring.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemCacheStats;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+@Component
+public class ItemCache implements MeterBinder, ItemWriteListener {
+
+    private final ItemReactiveRepository itemReactiveRepository;
+    private final AsyncCache<String, Item> cache;
+
+    public ItemCache(ItemReactiveRepository itemReactiveRepository, ItemProperties itemProperties) {
+        this.itemReactiveRepository = itemReactiveRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(itemProperties.getCache().getMaximumSize())
+                .expireAfterWrite(itemProperties.getCache().getTimeToLive())
+                .recordStats()
+                .buildAsync();
+    }
+
+    // Concurrent misses for the same id share the pending future, so Mongo sees a single findById.
+    public Mono<Item> findById(String id) {
+        return Mono.fromFuture(() -> cache.get(id, (key, executor) -> itemReactiveRepository.findById(key).toFuture()));
+    }
+
+    public void invalidate(String id) {
+        if (id != null) {
+            cache.synchronous().invalidate(id);
+        }
+    }
+
+    @Override
+    public void saved(Item item) {
+        invalidate(item.getId());
+    }
+
+    @Override
+    public void deleted(String id) {
+        invalidate(id);
+    }
+
+    @Override
+    public void failed(Item item) {
+        invalidate(item.getId());
+    }
+
+    @Override
+    public void cleared() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics(cache.synchronous(), "items", Collections.emptyList()).bindTo(registry);
+    }
+
+    public ItemCacheStats stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new ItemCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(),
+                stats.hitRate(), cache.synchronous().estimatedSize());
+    }
+}
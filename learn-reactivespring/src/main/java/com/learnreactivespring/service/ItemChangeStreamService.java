@@ -0,0 +1,160 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemChangeEvent;
+import com.learnreactivespring.dto.ItemChangeQuery;
+import com.learnreactivespring.flow.StreamFlowControl;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.model.changestream.OperationType;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+/**
+ * Live inserts, updates and deletes on the item collection, read from a MongoDB change stream (replica set or sharded
+ * cluster only). Description and price filters run as a {@code $match} on the server, so a subscriber only receives
+ * the changes it asked for. Deletes carry no document to match against and are always delivered. Each subscriber
+ * gets the {@link StreamFlowControl} policy of the other long-lived streams, metered as the "changes" stream.
+ */
+@Service
+@Slf4j
+public class ItemChangeStreamService {
+
+    private static final List<String> DOCUMENT_OPERATIONS = Arrays.asList("insert", "update", "replace");
+    // Failover, shutdown, network and cursor-loss codes the driver treats as resumable for change streams.
+    private static final List<Integer> RESUMABLE_CODES =
+            Arrays.asList(6, 7, 43, 89, 91, 133, 189, 234, 9001, 10107, 11600, 11602, 13435, 13436);
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final StreamFlowControl streamFlowControl;
+    private final ItemProperties.Changes changesProperties;
+    private final String collectionName;
+
+    public ItemChangeStreamService(ReactiveMongoOperations reactiveMongoOperations, StreamFlowControl streamFlowControl,
+                                   ItemProperties itemProperties) {
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.streamFlowControl = streamFlowControl;
+        this.changesProperties = itemProperties.getChanges();
+        this.collectionName = reactiveMongoOperations.getCollectionName(Item.class);
+    }
+
+    public Flux<ItemChangeEvent> getItemChanges(ItemChangeQuery query) {
+        return streamFlowControl.apply(itemChanges(query), "changes");
+    }
+
+    private Flux<ItemChangeEvent> itemChanges(ItemChangeQuery query) {
+        Criteria criteria = criteria(query);
+        return Flux.defer(() -> {
+            AtomicReference<BsonValue> lastToken = new AtomicReference<>(query.getResumeToken());
+            return Flux.defer(() -> watch(criteria, lastToken.get()))
+                    // An invalidate (collection dropped or renamed) cannot be resumed after; start over from now.
+                    .doOnNext(event -> lastToken.set(event.getOperationType() == OperationType.INVALIDATE ? null : event.getResumeToken()))
+                    .repeatWhen(completed -> completed.delayElements(changesProperties.getReconnectMinBackoff()))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, changesProperties.getReconnectMinBackoff())
+                            .maxBackoff(changesProperties.getReconnectMaxBackoff())
+                            .transientErrors(true)
+                            .filter(ItemChangeStreamService::isResumable)
+                            .doBeforeRetry(retrySignal -> log.warn("Change stream on {} failed, resuming after token {}",
+                                    collectionName, lastToken.get(), retrySignal.failure())));
+        }).handle((event, sink) -> {
+            ItemChangeEvent itemChangeEvent = toItemChangeEvent(event);
+            if (itemChangeEvent != null) {
+                sink.next(itemChangeEvent);
+            }
+        });
+    }
+
+    // The resume token doubles as the SSE event id, so a reconnecting EventSource resumes through Last-Event-ID.
+    public Flux<ServerSentEvent<ItemChangeEvent>> getItemChangeServerSentEvents(ItemChangeQuery query) {
+        return getItemChanges(query)
+                .map(event -> ServerSentEvent.builder(event)
+                        .id(event.getResumeToken())
+                        .event(event.getOperation().name().toLowerCase())
+                        .build());
+    }
+
+    private Flux<ChangeStreamEvent<Item>> watch(Criteria criteria, BsonValue resumeToken) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .filter(newAggregation(Item.class, match(criteria)))
+                .returnFullDocumentOnUpdate();
+        if (resumeToken != null) {
+            options.resumeAfter(resumeToken);
+        }
+        return reactiveMongoOperations.changeStream(collectionName, options.build(), Item.class);
+    }
+
+    // Field names resolve against fullDocument, except the change event's own fields such as operationType.
+    private static Criteria criteria(ItemChangeQuery query) {
+        Criteria documentCriteria = Criteria.where("operationType").in(DOCUMENT_OPERATIONS);
+        if (query.getDescription() != null) {
+            documentCriteria.and("description").regex(Pattern.quote(query.getDescription()), "i");
+        }
+        if (query.getMinPrice() != null || query.getMaxPrice() != null) {
+            Criteria price = documentCriteria.and("price");
+            if (query.getMinPrice() != null) {
+                price.gte(query.getMinPrice());
+            }
+            if (query.getMaxPrice() != null) {
+                price.lte(query.getMaxPrice());
+            }
+        }
+        return new Criteria().orOperator(documentCriteria, Criteria.where("operationType").is("delete"));
+    }
+
+    private static ItemChangeEvent toItemChangeEvent(ChangeStreamEvent<Item> event) {
+        ItemChangeEvent.Operation operation;
+        switch (event.getOperationType()) {
+            case INSERT:
+                operation = ItemChangeEvent.Operation.INSERT;
+                break;
+            case UPDATE:
+                operation = ItemChangeEvent.Operation.UPDATE;
+                break;
+            case REPLACE:
+                operation = ItemChangeEvent.Operation.REPLACE;
+                break;
+            case DELETE:
+                operation = ItemChangeEvent.Operation.DELETE;
+                break;
+            default:
+                return null;
+        }
+        Item item = event.getBody();
+        String id = item != null ? item.getId() : documentId(event.getRaw().getDocumentKey());
+        return new ItemChangeEvent(operation, id, item, ItemChangeQuery.encodeResumeToken(event.getResumeToken()));
+    }
+
+    private static String documentId(BsonDocument documentKey) {
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    // Other server errors (not a replica set, resume point gone from the oplog, bad pipeline) would fail again.
+    private static boolean isResumable(Throwable ex) {
+        if (!(ex instanceof MongoServerException)) {
+            return true;
+        }
+        MongoServerException serverException = (MongoServerException) ex;
+        return serverException.hasErrorLabel("ResumableChangeStreamError") || RESUMABLE_CODES.contains(serverException.getCode());
+    }
+}
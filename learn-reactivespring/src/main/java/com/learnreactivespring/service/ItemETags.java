@@ -0,0 +1,38 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.document.Item;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Strong ETags for single items: the document version when there is one, otherwise a hash of the content
+ * (documents written before versioning was introduced).
+ */
+public final class ItemETags {
+
+    private ItemETags() {
+    }
+
+    public static String eTag(Item item) {
+        if (item.getVersion() != null) {
+            return "\"v" + item.getVersion() + "\"";
+        }
+        String content = item.getId() + "|" + item.getDescription() + "|" + item.getPrice();
+        return "\"h" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Strong comparison of an {@code If-Match} header against the item; weak tags never match.
+     */
+    public static boolean matches(String ifMatch, Item item) {
+        String eTag = eTag(item);
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,244 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemPage;
+import com.learnreactivespring.dto.ItemPageRequest;
+import com.learnreactivespring.dto.ItemSearchHit;
+import com.learnreactivespring.dto.ItemSearchQuery;
+import com.learnreactivespring.dto.ItemTextSearchQuery;
+import com.learnreactivespring.exception.ItemAlreadyExistsException;
+import com.learnreactivespring.exception.ItemPreconditionFailedException;
+import com.learnreactivespring.exception.ItemVersionConflictException;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class ItemService {
+
+    private final ItemReactiveRepository itemReactiveRepository;
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final ItemCache itemCache;
+    private final List<ItemWriteListener> itemWriteListeners;
+    private final ItemProperties.Page pageProperties;
+
+    public ItemService(ItemReactiveRepository itemReactiveRepository, ReactiveMongoOperations reactiveMongoOperations,
+                       ItemCache itemCache, List<ItemWriteListener> itemWriteListeners, ItemProperties itemProperties) {
+        this.itemReactiveRepository = itemReactiveRepository;
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.itemCache = itemCache;
+        this.itemWriteListeners = itemWriteListeners;
+        this.pageProperties = itemProperties.getPage();
+    }
+
+    public Mono<ItemPage> getItemsPage(MultiValueMap<String, String> params) {
+        return Mono.fromCallable(() -> ItemPageRequest.from(params, pageProperties))
+                .flatMap(this::getItemsPage);
+    }
+
+    public Mono<ItemPage> getItemsPage(ItemPageRequest pageRequest) {
+        Sort.Direction direction = pageRequest.getDirection();
+        Sort sort = Sort.by(direction, pageRequest.getSortField());
+        if (!"id".equals(pageRequest.getSortField())) {
+            sort = sort.and(Sort.by(direction, "id"));
+        }
+        // One extra document tells us whether another page exists without a count query.
+        Query query = new Query().with(sort).limit(pageRequest.getLimit() + 1);
+        if (pageRequest.getAfterId() != null) {
+            query.addCriteria(keysetCriteria(pageRequest));
+        }
+        if (!pageRequest.getFields().isEmpty()) {
+            pageRequest.getFields().forEach(field -> query.fields().include(field));
+            query.fields().include(pageRequest.getSortField());
+        }
+
+        return reactiveMongoOperations.find(query, Item.class)
+                .collectList()
+                .map(items -> {
+                    if (items.size() <= pageRequest.getLimit()) {
+                        return new ItemPage(items, null);
+                    }
+                    List<Item> page = items.subList(0, pageRequest.getLimit());
+                    return new ItemPage(page, pageRequest.continuationToken(page.get(page.size() - 1)));
+                });
+    }
+
+    public Flux<Item> searchItems(MultiValueMap<String, String> params) {
+        return Mono.fromCallable(() -> ItemSearchQuery.from(params, pageProperties))
+                .flatMapMany(this::searchItems);
+    }
+
+    public Flux<Item> searchItems(ItemSearchQuery searchQuery) {
+        return reactiveMongoOperations.find(searchQuery.query(), Item.class);
+    }
+
+    public Flux<ItemSearchHit> searchItemsText(MultiValueMap<String, String> params) {
+        return Mono.fromCallable(() -> ItemTextSearchQuery.from(params, pageProperties))
+                .flatMapMany(this::searchItemsText);
+    }
+
+    // Read as raw documents because the text score is not part of Item.
+    public Flux<ItemSearchHit> searchItemsText(ItemTextSearchQuery searchQuery) {
+        return reactiveMongoOperations.find(searchQuery.query(), Document.class, reactiveMongoOperations.getCollectionName(Item.class))
+                .map(document -> {
+                    Item item = reactiveMongoOperations.getConverter().read(Item.class, document);
+                    Number score = document.get(ItemTextSearchQuery.SCORE, Number.class);
+                    return new ItemSearchHit(item, score == null ? null : score.doubleValue(), searchQuery.highlight(item.getDescription()));
+                });
+    }
+
+    public Mono<Item> getItem(String id) {
+        return itemCache.findById(id);
+    }
+
+    // An item without a version is inserted, so a client-chosen id that is taken fails instead of overwriting it.
+    public Mono<Item> createItem(Item item) {
+        boolean insert = item.getVersion() == null;
+        return itemReactiveRepository.save(item)
+                .onErrorMap(DuplicateKeyException.class, ex -> new ItemAlreadyExistsException(item.getId()))
+                .doOnNext(savedItem -> {
+                    if (insert) {
+                        saved(null, savedItem);
+                    } else {
+                        saved(savedItem);
+                    }
+                });
+    }
+
+    // findAndRemove rather than deleteById, so that listeners learn what was removed.
+    public Mono<Void> deleteItem(String id) {
+        return reactiveMongoOperations.findAndRemove(Query.query(Criteria.where("id").is(id)), Item.class)
+                .doOnSuccess(previous -> itemWriteListeners.forEach(listener -> {
+                    if (previous != null) {
+                        listener.deleted(previous);
+                    } else {
+                        listener.deleted(id);
+                    }
+                }))
+                .then();
+    }
+
+    /**
+     * Applies the new description and price in a single findAndModify round-trip. When the
+     * incoming item carries a version the update only matches that version, and a miss on an
+     * existing item is reported as {@link ItemVersionConflictException}.
+     */
+    public Mono<Item> updateItem(String id, Item newItem) {
+        Criteria expected = newItem.getVersion() == null ? null : Criteria.where("version").is(newItem.getVersion());
+        return findAndUpdate(id, newItem, expected)
+                .switchIfEmpty(Mono.defer(() -> newItem.getVersion() == null
+                        ? Mono.empty()
+                        : itemReactiveRepository.existsById(id)
+                        .flatMap(exists -> exists
+                                ? Mono.error(new ItemVersionConflictException(id, newItem.getVersion()))
+                                : Mono.empty())));
+    }
+
+    /**
+     * Update guarded by an {@code If-Match} header: the current item must match one of the given ETags, and the
+     * update is then pinned to the state that matched, so a concurrent write between the check and the update also
+     * fails the precondition. A version in the body must be the one that matched.
+     */
+    public Mono<Item> updateItem(String id, Item newItem, String ifMatch) {
+        if (ifMatch == null) {
+            return updateItem(id, newItem);
+        }
+        return itemReactiveRepository.findById(id)
+                .flatMap(current -> {
+                    if (!ItemETags.matches(ifMatch, current)) {
+                        return Mono.error(new ItemPreconditionFailedException(id, ifMatch));
+                    }
+                    if (newItem.getVersion() != null && !newItem.getVersion().equals(current.getVersion())) {
+                        return Mono.error(new ItemVersionConflictException(id, newItem.getVersion()));
+                    }
+                    return findAndUpdate(id, newItem, matchedState(current))
+                            .switchIfEmpty(Mono.error(() -> new ItemPreconditionFailedException(id, ifMatch)));
+                });
+    }
+
+    private Mono<Item> findAndUpdate(String id, Item newItem, Criteria expected) {
+        Query query = Query.query(Criteria.where("id").is(id));
+        if (expected != null) {
+            query.addCriteria(expected);
+        }
+        Update update = new Update()
+                .set("description", newItem.getDescription())
+                .set("price", newItem.getPrice())
+                .inc("version", 1);
+        // The item as it was, so that listeners see both sides; the updated one follows from the update itself.
+        return reactiveMongoOperations.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Item.class)
+                .map(previous -> {
+                    Item updated = new Item(id, newItem.getDescription(), newItem.getPrice(),
+                            previous.getVersion() == null ? 1L : previous.getVersion() + 1);
+                    saved(previous, updated);
+                    return updated;
+                });
+    }
+
+    // What the ETag was computed from: the version, or the hashed content of a document written before versioning.
+    private static Criteria matchedState(Item current) {
+        if (current.getVersion() != null) {
+            return Criteria.where("version").is(current.getVersion());
+        }
+        return new Criteria().andOperator(Criteria.where("version").exists(false),
+                Criteria.where("description").is(current.getDescription()),
+                Criteria.where("price").is(current.getPrice()));
+    }
+
+    private void saved(Item item) {
+        itemWriteListeners.forEach(listener -> listener.saved(item));
+    }
+
+    private void saved(Item previous, Item item) {
+        itemWriteListeners.forEach(listener -> listener.saved(previous, item));
+    }
+
+    // Mongo sorts a missing or null value before any other, so ascending pages run from the nulls into the values and
+    // descending ones from the values into the nulls; $gt and $lt never match null, so those rows are added explicitly.
+    private Criteria keysetCriteria(ItemPageRequest pageRequest) {
+        Criteria afterId = idCriteria(pageRequest.getAfterId(), pageRequest.getDirection());
+        if ("id".equals(pageRequest.getSortField())) {
+            return afterId;
+        }
+        String field = pageRequest.getSortField();
+        Object value = pageRequest.getAfterValue();
+        boolean ascending = pageRequest.getDirection().isAscending();
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(field).is(value), afterId);
+        if (value == null) {
+            return ascending ? new Criteria().orOperator(sameValue, Criteria.where(field).ne(null)) : sameValue;
+        }
+        return ascending
+                ? new Criteria().orOperator(Criteria.where(field).gt(value), sameValue)
+                : new Criteria().orOperator(Criteria.where(field).lt(value), sameValue, Criteria.where(field).is(null));
+    }
+
+    // Ids are ObjectIds unless a client chose its own string id; Mongo orders strings before ObjectIds
+    // and $gt/$lt never cross that type boundary, so the other type is added explicitly.
+    static Criteria idCriteria(String lastId, Sort.Direction direction) {
+        boolean objectId = ObjectId.isValid(lastId);
+        Object id = objectId ? new ObjectId(lastId) : lastId;
+        if (direction.isAscending()) {
+            return objectId
+                    ? Criteria.where("id").gt(id)
+                    : new Criteria().orOperator(Criteria.where("id").gt(id), Criteria.where("id").type(JsonSchemaObject.Type.OBJECT_ID));
+        }
+        return objectId
+                ? new Criteria().orOperator(Criteria.where("id").lt(id), Criteria.where("id").type(JsonSchemaObject.Type.STRING))
+                : Criteria.where("id").lt(id);
+    }
+}
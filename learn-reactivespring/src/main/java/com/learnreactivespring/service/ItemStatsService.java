@@ -0,0 +1,130 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemPriceBucket;
+import com.learnreactivespring.dto.ItemStats;
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.bucket;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+/**
+ * Item count, price range, average and histogram, computed by $group and $bucket pipelines so that only the figures
+ * leave the database. Served from the in-memory {@link ItemStatsSummary} instead when it is enabled, loaded and asked
+ * for the configured boundaries, unless source=aggregation is given.
+ */
+@Service
+public class ItemStatsService {
+
+    public static final String PRICE_BOUNDARIES = "priceBoundaries";
+    public static final String SOURCE = "source";
+
+    private static final String OTHER_BUCKET = "other";
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final ObjectProvider<ItemStatsSummary> itemStatsSummary;
+    private final ItemProperties.Stats statsProperties;
+
+    public ItemStatsService(ReactiveMongoOperations reactiveMongoOperations, ObjectProvider<ItemStatsSummary> itemStatsSummary,
+                            ItemProperties itemProperties) {
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.itemStatsSummary = itemStatsSummary;
+        this.statsProperties = itemProperties.getStats();
+    }
+
+    public Mono<ItemStats> getStats(MultiValueMap<String, String> params) {
+        return Mono.defer(() -> {
+            List<Double> boundaries = boundaries(params.getFirst(PRICE_BOUNDARIES));
+            String source = params.getFirst(SOURCE);
+            if (StringUtils.hasText(source) && !ItemStats.AGGREGATION.equals(source) && !ItemStats.SUMMARY.equals(source)) {
+                throw new InvalidItemQueryException("Unknown stats source: " + source);
+            }
+            ItemStatsSummary summary = itemStatsSummary.getIfAvailable();
+            if (!ItemStats.AGGREGATION.equals(source) && summary != null && summary.isLoaded()
+                    && boundaries.equals(statsProperties.getPriceBoundaries())) {
+                return Mono.just(summary.stats());
+            }
+            return aggregate(boundaries);
+        });
+    }
+
+    public Mono<ItemStats> aggregate(List<Double> boundaries) {
+        Aggregation totals = newAggregation(group()
+                .count().as("count")
+                .min("price").as("minPrice")
+                .max("price").as("maxPrice")
+                .avg("price").as("avgPrice"));
+        Aggregation histogram = newAggregation(bucket("price")
+                .withBoundaries(boundaries.toArray())
+                .withDefaultBucket(OTHER_BUCKET)
+                .andOutputCount().as("count"));
+
+        return Mono.zip(reactiveMongoOperations.aggregate(totals, Item.class, Document.class).next().defaultIfEmpty(new Document()),
+                reactiveMongoOperations.aggregate(histogram, Item.class, Document.class)
+                        .collectMap(bucket -> bucket.get("_id"), bucket -> bucket.get("count", Number.class).longValue()))
+                .map(results -> {
+                    Document total = results.getT1();
+                    Map<Object, Long> bucketCounts = results.getT2();
+                    long[] counts = new long[boundaries.size()];
+                    for (int i = 0; i < boundaries.size() - 1; i++) {
+                        counts[i] = bucketCounts.getOrDefault(boundaries.get(i), 0L);
+                    }
+                    counts[boundaries.size() - 1] = bucketCounts.getOrDefault(OTHER_BUCKET, 0L);
+                    Number count = total.get("count", Number.class);
+                    return new ItemStats(count == null ? 0 : count.longValue(), number(total, "minPrice"), number(total, "maxPrice"),
+                            number(total, "avgPrice"), histogram(boundaries, counts), ItemStats.AGGREGATION);
+                });
+    }
+
+    // counts holds one entry per range between consecutive boundaries, then the count outside all of them.
+    static List<ItemPriceBucket> histogram(List<Double> boundaries, long[] counts) {
+        List<ItemPriceBucket> histogram = new ArrayList<>(boundaries.size());
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            histogram.add(new ItemPriceBucket(boundaries.get(i), boundaries.get(i + 1), counts[i]));
+        }
+        histogram.add(new ItemPriceBucket(null, null, counts[boundaries.size() - 1]));
+        return histogram;
+    }
+
+    private List<Double> boundaries(String value) {
+        if (!StringUtils.hasText(value)) {
+            return statsProperties.getPriceBoundaries();
+        }
+        List<Double> boundaries = new ArrayList<>();
+        for (String boundary : StringUtils.commaDelimitedListToStringArray(value)) {
+            try {
+                boundaries.add(Double.valueOf(boundary.trim()));
+            } catch (NumberFormatException ex) {
+                throw new InvalidItemQueryException("Invalid price boundary: " + boundary);
+            }
+        }
+        if (boundaries.size() < 2) {
+            throw new InvalidItemQueryException(PRICE_BOUNDARIES + " needs at least two values");
+        }
+        for (int i = 1; i < boundaries.size(); i++) {
+            if (boundaries.get(i) <= boundaries.get(i - 1)) {
+                throw new InvalidItemQueryException(PRICE_BOUNDARIES + " must be strictly ascending");
+            }
+        }
+        return boundaries;
+    }
+
+    private static Double number(Document document, String field) {
+        Number number = document.get(field, Number.class);
+        return number == null ? null : number.doubleValue();
+    }
+}
@@ -0,0 +1,183 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Node-local running totals behind {@link ItemStatsService}: count, price sum, min, max and counts per
+ * item.stats.price-boundaries bucket, adjusted by the old and new price of every write through this node, so reading
+ * them costs no more than copying a few numbers and holding them costs the same however large the catalogue grows.
+ *
+ * <p>A reload from {@link ItemStatsService#aggregate} every item.stats.refresh-interval picks up writes through other
+ * nodes and local ones whose old price was not known. It also tightens min and max: deleting the item that held one
+ * leaves the old value in place until then, since finding the next one would take a query.
+ */
+@Component
+@ConditionalOnProperty(prefix = "item.stats", name = "summary-enabled", matchIfMissing = true)
+@Slf4j
+public class ItemStatsSummary implements ItemWriteListener, CommandLineRunner, DisposableBean {
+
+    private final ItemStatsService itemStatsService;
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final ItemProperties.Stats statsProperties;
+    private final List<Double> boundaries;
+    private final long[] bucketCounts;
+    private long count;
+    private long pricedCount;
+    private double priceSum;
+    private Double minPrice;
+    private Double maxPrice;
+    private volatile boolean loaded;
+    private Disposable reloads;
+
+    public ItemStatsSummary(ItemStatsService itemStatsService, ReactiveMongoOperations reactiveMongoOperations,
+                            ItemProperties itemProperties) {
+        this.itemStatsService = itemStatsService;
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.statsProperties = itemProperties.getStats();
+        this.boundaries = Collections.unmodifiableList(statsProperties.getPriceBoundaries());
+        this.bucketCounts = new long[boundaries.size()];
+    }
+
+    @Override
+    public void run(String... args) {
+        reloads = Flux.interval(Duration.ZERO, statsProperties.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> reload()
+                        .onErrorResume(ex -> {
+                            log.warn("Reloading the item stats summary failed", ex);
+                            return Mono.empty();
+                        }))
+                .subscribe(reloaded -> log.debug("Reloaded the item stats summary of {} items", reloaded.getCount()));
+    }
+
+    @Override
+    public void destroy() {
+        if (reloads != null) {
+            reloads.dispose();
+        }
+    }
+
+    // The unpriced count turns the aggregated average back into the sum that writes adjust. A write through this node
+    // while the reload runs may or may not be part of its figures; the next reload settles it.
+    public Mono<ItemStats> reload() {
+        Query unpriced = Query.query(Criteria.where("price").is(null));
+        return Mono.zip(itemStatsService.aggregate(boundaries), reactiveMongoOperations.count(unpriced, Item.class))
+                .map(results -> {
+                    loaded(results.getT1(), results.getT2());
+                    return stats();
+                });
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized ItemStats stats() {
+        return new ItemStats(count, minPrice, maxPrice,
+                pricedCount == 0 ? null : priceSum / pricedCount,
+                ItemStatsService.histogram(boundaries, bucketCounts.clone()),
+                ItemStats.SUMMARY);
+    }
+
+    @Override
+    public void saved(Item item) {
+        // Neither whether it created the item nor the price it replaced is known; left to the next reload.
+    }
+
+    @Override
+    public synchronized void saved(Item previous, Item item) {
+        if (previous != null) {
+            remove(previous.getPrice());
+        }
+        add(item.getPrice());
+    }
+
+    @Override
+    public void deleted(String id) {
+        // Nothing was removed, or what was is unknown; left to the next reload.
+    }
+
+    @Override
+    public synchronized void deleted(Item previous) {
+        remove(previous.getPrice());
+    }
+
+    @Override
+    public synchronized void cleared() {
+        count = 0;
+        pricedCount = 0;
+        priceSum = 0;
+        minPrice = null;
+        maxPrice = null;
+        Arrays.fill(bucketCounts, 0);
+    }
+
+    private synchronized void loaded(ItemStats aggregated, long unpricedCount) {
+        count = aggregated.getCount();
+        pricedCount = count - unpricedCount;
+        priceSum = aggregated.getAvgPrice() == null ? 0 : aggregated.getAvgPrice() * pricedCount;
+        minPrice = aggregated.getMinPrice();
+        maxPrice = aggregated.getMaxPrice();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = aggregated.getPriceHistogram().get(i).getCount();
+        }
+        loaded = true;
+    }
+
+    private void add(Double price) {
+        count++;
+        bucketCounts[bucket(price)]++;
+        if (price != null) {
+            pricedCount++;
+            priceSum += price;
+            minPrice = minPrice == null ? price : Math.min(minPrice, price);
+            maxPrice = maxPrice == null ? price : Math.max(maxPrice, price);
+        }
+    }
+
+    // Min and max stay put, so they still bound every price; only the last priced item clears them.
+    private void remove(Double price) {
+        count--;
+        bucketCounts[bucket(price)]--;
+        if (price != null) {
+            pricedCount--;
+            priceSum -= price;
+            if (pricedCount == 0) {
+                priceSum = 0;
+                minPrice = null;
+                maxPrice = null;
+            }
+        }
+    }
+
+    // Same rules as $bucket: lower bound inclusive, upper exclusive, anything else in the last, unbounded slot.
+    private int bucket(Double price) {
+        int other = boundaries.size() - 1;
+        if (price == null || price < boundaries.get(0) || price >= boundaries.get(other)) {
+            return other;
+        }
+        int bucket = 0;
+        while (price >= boundaries.get(bucket + 1)) {
+            bucket++;
+        }
+        return bucket;
+    }
+}
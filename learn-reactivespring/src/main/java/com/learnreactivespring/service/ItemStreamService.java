@@ -0,0 +1,105 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.ItemCapped;
+import com.learnreactivespring.dto.ItemStreamFilter;
+import com.learnreactivespring.flow.StreamFlowControl;
+import com.learnreactivespring.repository.ItemReactiveCappedRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+@Service
+@Slf4j
+public class ItemStreamService {
+
+    private final ItemReactiveCappedRepository itemReactiveCappedRepository;
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final StreamFlowControl streamFlowControl;
+    private final ItemProperties.Stream streamProperties;
+    private final Flux<ItemCapped> sharedItemsStream;
+    private final Map<ItemStreamFilter, Flux<ItemCapped>> filteredItemsStreams = new ConcurrentHashMap<>();
+
+    public ItemStreamService(ItemReactiveCappedRepository itemReactiveCappedRepository,
+                             ReactiveMongoOperations reactiveMongoOperations, StreamFlowControl streamFlowControl,
+                             ItemProperties itemProperties) {
+        this.itemReactiveCappedRepository = itemReactiveCappedRepository;
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.streamFlowControl = streamFlowControl;
+        this.streamProperties = itemProperties.getStream();
+        this.sharedItemsStream = share(tailItemsCapped(this::resumeFrom));
+    }
+
+    public Flux<ItemCapped> getItemsStream() {
+        return getItemsStream(ItemStreamFilter.none());
+    }
+
+    public Flux<ItemCapped> getItemsStream(ItemStreamFilter filter) {
+        return streamFlowControl.apply(itemsStream(filter), "items");
+    }
+
+    // A filter gets its own tailable query, shared by every subscriber with an equal filter, while the number of such
+    // cursors stays within bounds; past that, the filter is evaluated on the unfiltered shared stream instead.
+    private Flux<ItemCapped> itemsStream(ItemStreamFilter filter) {
+        if (filter.isEmpty()) {
+            return sharedItemsStream;
+        }
+        Flux<ItemCapped> filteredItemsStream = filteredItemsStreams.get(filter);
+        if (filteredItemsStream == null) {
+            filteredItemsStream = addFilteredItemsStream(filter);
+        }
+        return filteredItemsStream != null ? filteredItemsStream : sharedItemsStream.filter(filter.predicate());
+    }
+
+    // Checking the bound and adding under one lock keeps concurrent new filters from overshooting it; a cursor that
+    // ends only removes its own entry, which never takes the map past the bound.
+    private synchronized Flux<ItemCapped> addFilteredItemsStream(ItemStreamFilter filter) {
+        Flux<ItemCapped> filteredItemsStream = filteredItemsStreams.get(filter);
+        if (filteredItemsStream == null && filteredItemsStreams.size() < streamProperties.getMaxFilteredCursors()) {
+            filteredItemsStream = shareFiltered(filter);
+            filteredItemsStreams.put(filter, filteredItemsStream);
+        }
+        return filteredItemsStream;
+    }
+
+    private Flux<ItemCapped> shareFiltered(ItemStreamFilter filter) {
+        AtomicReference<Flux<ItemCapped>> shared = new AtomicReference<>();
+        shared.set(share(tailItemsCapped(lastSeenId -> reactiveMongoOperations.tail(filter.query(lastSeenId), ItemCapped.class))
+                .doFinally(signal -> filteredItemsStreams.remove(filter, shared.get()))));
+        return shared.get();
+    }
+
+    // One tailable cursor per query and node, replayed to late subscribers and released when nobody listens.
+    private Flux<ItemCapped> share(Flux<ItemCapped> itemsCapped) {
+        return itemsCapped
+                .replay(streamProperties.getReplaySize())
+                .refCount(1, streamProperties.getGracePeriod());
+    }
+
+    private Flux<ItemCapped> tailItemsCapped(Function<String, Flux<ItemCapped>> resumeFrom) {
+        return Flux.defer(() -> {
+            AtomicReference<String> lastSeenId = new AtomicReference<>();
+            return Flux.defer(() -> resumeFrom.apply(lastSeenId.get()))
+                    .doOnNext(itemCapped -> lastSeenId.set(itemCapped.getId()))
+                    .repeatWhen(completed -> completed.delayElements(streamProperties.getReconnectMinBackoff()))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, streamProperties.getReconnectMinBackoff())
+                            .maxBackoff(streamProperties.getReconnectMaxBackoff())
+                            .transientErrors(true)
+                            .doBeforeRetry(retrySignal -> log.warn("Tailable cursor on itemCapped failed, resuming after id {}",
+                                    lastSeenId.get(), retrySignal.failure())));
+        });
+    }
+
+    private Flux<ItemCapped> resumeFrom(String lastSeenId) {
+        return lastSeenId == null
+                ? itemReactiveCappedRepository.findItemsBy()
+                : itemReactiveCappedRepository.findItemsByIdGreaterThan(lastSeenId);
+    }
+}
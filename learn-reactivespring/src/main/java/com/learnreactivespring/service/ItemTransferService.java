@@ -0,0 +1,92 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.dto.ItemImportProgress;
+import com.learnreactivespring.exception.ItemImportRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Whole-catalogue export and import. An export walks the collection in _id order on one cursor, so memory stays
+ * flat however many items there are, and an interrupted export continues with afterId set to the last id received.
+ * An import writes its input in unordered insert batches through {@link ItemBulkService}, keeping ids and versions,
+ * and reports progress after every batch; at most item.transfer.max-concurrent-imports run at once on this node.
+ */
+@Service
+public class ItemTransferService {
+
+    private final ReactiveMongoOperations reactiveMongoOperations;
+    private final ItemBulkService itemBulkService;
+    private final ItemProperties.Transfer transferProperties;
+    private final Semaphore imports;
+
+    public ItemTransferService(ReactiveMongoOperations reactiveMongoOperations, ItemBulkService itemBulkService,
+                               ItemProperties itemProperties) {
+        this.reactiveMongoOperations = reactiveMongoOperations;
+        this.itemBulkService = itemBulkService;
+        this.transferProperties = itemProperties.getTransfer();
+        this.imports = new Semaphore(transferProperties.getMaxConcurrentImports());
+    }
+
+    public Flux<Item> exportItems(String afterId) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id"))
+                .cursorBatchSize(transferProperties.getExportBatchSize());
+        if (StringUtils.hasText(afterId)) {
+            query.addCriteria(ItemService.idCriteria(afterId, Sort.Direction.ASC));
+        }
+        return reactiveMongoOperations.find(query, Item.class);
+    }
+
+    // The permit is taken on subscription, so a rejected import fails before anything is written or read.
+    public Flux<ItemImportProgress> importItems(Flux<Item> items) {
+        return Flux.defer(() -> {
+            if (!imports.tryAcquire()) {
+                return Flux.error(new ItemImportRejectedException(transferProperties.getMaxConcurrentImports()));
+            }
+            long started = System.nanoTime();
+            AtomicReference<ItemImportProgress> progress = new AtomicReference<>(new ItemImportProgress());
+            return itemBulkService.writeBatches(items, ItemBulkService.WriteMode.INSERT,
+                    transferProperties.getImportBatchSize(), transferProperties.getImportConcurrency())
+                    .map(results -> progress.updateAndGet(previous -> next(previous, results, started)))
+                    .concatWith(Mono.fromSupplier(() -> {
+                        ItemImportProgress last = progress.get();
+                        return new ItemImportProgress(last.getProcessed(), last.getInserted(), last.getFailed(),
+                                last.getLastId(), last.getLastError(), elapsedMillis(started), true);
+                    }))
+                    .doFinally(signal -> imports.release());
+        });
+    }
+
+    private static ItemImportProgress next(ItemImportProgress previous, List<ItemBulkResult> results, long started) {
+        long inserted = previous.getInserted();
+        long failed = previous.getFailed();
+        String lastError = previous.getLastError();
+        for (ItemBulkResult result : results) {
+            if (result.getStatus() == ItemBulkResult.Status.FAILED) {
+                failed++;
+                lastError = result.getError();
+            } else {
+                inserted++;
+            }
+        }
+        String lastId = results.isEmpty() ? previous.getLastId() : results.get(results.size() - 1).getId();
+        return new ItemImportProgress(previous.getProcessed() + results.size(), inserted, failed, lastId, lastError,
+                elapsedMillis(started), false);
+    }
+
+    private static long elapsedMillis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+}
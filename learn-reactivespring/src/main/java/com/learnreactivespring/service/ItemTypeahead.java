@@ -0,0 +1,237 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemSuggestion;
+import com.learnreactivespring.exception.InvalidItemQueryException;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Node-local edge n-gram index over item descriptions for typeahead. Each word is indexed under its prefixes of
+ * item.typeahead.min-gram to max-gram characters, so a lookup is a map get per typed word instead of a scan.
+ *
+ * <p>Writes through this node update the index as they happen; the full rebuild every
+ * item.typeahead.rebuild-interval picks up writes made elsewhere. Every change is stamped, and a rebuild neither
+ * overwrites nor evicts an entry that changed after the rebuild started.
+ */
+@Component
+@ConditionalOnProperty(prefix = "item.typeahead", name = "enabled", matchIfMissing = true)
+@Slf4j
+public class ItemTypeahead implements ItemWriteListener, CommandLineRunner, DisposableBean {
+
+    public static final String PREFIX = "prefix";
+    public static final String LIMIT = "limit";
+    private static final long LIVE = -1;
+
+    private final ItemReactiveRepository itemReactiveRepository;
+    private final ItemProperties.Typeahead typeaheadProperties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> grams = new ConcurrentHashMap<>();
+    private final AtomicLong stamps = new AtomicLong();
+    private Disposable rebuilds;
+
+    public ItemTypeahead(ItemReactiveRepository itemReactiveRepository, ItemProperties itemProperties) {
+        this.itemReactiveRepository = itemReactiveRepository;
+        this.typeaheadProperties = itemProperties.getTypeahead();
+    }
+
+    @Override
+    public void run(String... args) {
+        rebuilds = Flux.interval(Duration.ZERO, typeaheadProperties.getRebuildInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> rebuild()
+                        .onErrorResume(ex -> {
+                            log.warn("Rebuilding the item typeahead index failed", ex);
+                            return Mono.empty();
+                        }))
+                .subscribe(count -> log.debug("Rebuilt the item typeahead index from {} items", count));
+    }
+
+    @Override
+    public void destroy() {
+        if (rebuilds != null) {
+            rebuilds.dispose();
+        }
+    }
+
+    public Mono<Long> rebuild() {
+        return Mono.defer(() -> {
+            long snapshot = stamps.get();
+            return itemReactiveRepository.findAll()
+                    .doOnNext(item -> put(item.getId(), item.getDescription(), snapshot))
+                    .count()
+                    .doOnNext(count -> evictUnchangedSince(snapshot));
+        });
+    }
+
+    @Override
+    public void saved(Item item) {
+        put(item.getId(), item.getDescription(), LIVE);
+    }
+
+    @Override
+    public void deleted(String id) {
+        put(id, null, LIVE);
+    }
+
+    @Override
+    public synchronized void cleared() {
+        new ArrayList<>(entries.keySet()).forEach(id -> put(id, null, LIVE));
+    }
+
+    // The prefix and limit query parameters of both suggest endpoints; the limit defaults to max-suggestions.
+    public List<ItemSuggestion> suggest(MultiValueMap<String, String> params) {
+        String prefix = params.getFirst(PREFIX);
+        if (prefix == null) {
+            throw new InvalidItemQueryException("Missing " + PREFIX);
+        }
+        String limitParam = params.getFirst(LIMIT);
+        if (limitParam == null) {
+            return suggest(prefix, Integer.MAX_VALUE);
+        }
+        try {
+            return suggest(prefix, Integer.parseInt(limitParam));
+        } catch (NumberFormatException ex) {
+            throw new InvalidItemQueryException("Invalid limit: " + limitParam);
+        }
+    }
+
+    // Every typed word must prefix a word of the description; shorter descriptions rank first. Words below min-gram,
+    // like the first letter of the next word, only narrow down what the longer ones found. The limit is capped at
+    // item.typeahead.max-suggestions.
+    public List<ItemSuggestion> suggest(String text, int limit) {
+        if (limit < 0) {
+            throw new InvalidItemQueryException("Invalid limit: " + limit);
+        }
+        List<String> words = words(text);
+        List<Set<String>> candidates = new ArrayList<>(words.size());
+        for (String word : words) {
+            if (word.length() < typeaheadProperties.getMinGram()) {
+                continue;
+            }
+            Set<String> ids = grams.get(gram(word));
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            candidates.add(ids);
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        candidates.sort(Comparator.comparingInt(Set::size));
+
+        return candidates.get(0).stream()
+                .filter(id -> candidates.stream().allMatch(ids -> ids.contains(id)))
+                .map(id -> {
+                    Entry entry = entries.get(id);
+                    return entry == null || entry.description == null ? null : new ItemSuggestion(id, entry.description);
+                })
+                .filter(suggestion -> suggestion != null && matches(suggestion.getDescription(), words))
+                .sorted(Comparator.comparingInt((ItemSuggestion suggestion) -> suggestion.getDescription().length())
+                        .thenComparing(ItemSuggestion::getDescription)
+                        .thenComparing(ItemSuggestion::getId))
+                .limit(Math.min(limit, typeaheadProperties.getMaxSuggestions()))
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return (int) entries.values().stream().filter(entry -> entry.description != null).count();
+    }
+
+    // A deleted item stays behind as an entry without description, so that a rebuild that read it before the delete
+    // does not bring it back.
+    private synchronized void put(String id, String description, long snapshot) {
+        if (id == null) {
+            return;
+        }
+        Entry current = entries.get(id);
+        if (snapshot != LIVE && current != null && current.stamp > snapshot) {
+            return;
+        }
+        if (current != null && current.description != null) {
+            unindex(id, current.description);
+        }
+        entries.put(id, new Entry(description, stamps.incrementAndGet()));
+        if (description != null) {
+            for (String word : words(description)) {
+                for (int length = typeaheadProperties.getMinGram(); length <= Math.min(word.length(), typeaheadProperties.getMaxGram()); length++) {
+                    grams.computeIfAbsent(word.substring(0, length), gram -> ConcurrentHashMap.newKeySet()).add(id);
+                }
+            }
+        }
+    }
+
+    private synchronized void evictUnchangedSince(long snapshot) {
+        entries.entrySet().removeIf(entry -> {
+            if (entry.getValue().stamp > snapshot) {
+                return false;
+            }
+            if (entry.getValue().description != null) {
+                unindex(entry.getKey(), entry.getValue().description);
+            }
+            return true;
+        });
+    }
+
+    private void unindex(String id, String description) {
+        for (String word : words(description)) {
+            for (int length = typeaheadProperties.getMinGram(); length <= Math.min(word.length(), typeaheadProperties.getMaxGram()); length++) {
+                grams.computeIfPresent(word.substring(0, length), (gram, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    private String gram(String word) {
+        return word.length() > typeaheadProperties.getMaxGram() ? word.substring(0, typeaheadProperties.getMaxGram()) : word;
+    }
+
+    // Words longer than max-gram share a gram with their truncation, so candidates are checked against the full text.
+    private static boolean matches(String description, List<String> words) {
+        List<String> descriptionWords = words(description);
+        return words.stream().allMatch(word -> descriptionWords.stream().anyMatch(candidate -> candidate.startsWith(word)));
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final String description;
+        private final long stamp;
+    }
+}
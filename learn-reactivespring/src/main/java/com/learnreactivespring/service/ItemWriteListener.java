@@ -0,0 +1,33 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.document.Item;
+
+/**
+ * Told about every item write that goes through {@link ItemService} or {@link ItemBulkService}, after Mongo
+ * acknowledged it, so that node-local views of the items can follow without reading them back.
+ */
+public interface ItemWriteListener {
+
+    void saved(Item item);
+
+    // The same write when the item it replaced is known, null for one it created; for views that keep figures derived
+    // from the old values. Writes that cannot tell only call saved(item).
+    default void saved(Item previous, Item item) {
+        saved(item);
+    }
+
+    void deleted(String id);
+
+    // The same delete with the item it removed.
+    default void deleted(Item previous) {
+        deleted(previous.getId());
+    }
+
+    // A write whose outcome is unknown, such as a bulk batch that failed as a whole; it may or may not have landed.
+    default void failed(Item item) {
+    }
+
+    // Every item was removed at once, such as by a seed replacing the collection.
+    default void cleared() {
+    }
+}
@@ -0,0 +1,41 @@
+package com.learnreactivespring.trace;
+
+import com.learnreactivespring.config.ItemProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Marks a request as traced when tracing is enabled and either the trace header is {@code true} or the request
+ * falls on the 1-in-{@code sample-rate} sample.
+ */
+@Component
+public class SignalTraceWebFilter implements WebFilter {
+
+    private final ItemProperties.Trace properties;
+    private final AtomicLong requests = new AtomicLong();
+
+    public SignalTraceWebFilter(ItemProperties itemProperties) {
+        this.properties = itemProperties.getTrace();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !isTraced(exchange)) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange).subscriberContext(SignalTracer::traced);
+    }
+
+    private boolean isTraced(ServerWebExchange exchange) {
+        if (Boolean.parseBoolean(exchange.getRequest().getHeaders().getFirst(properties.getHeader()))) {
+            return true;
+        }
+        int sampleRate = properties.getSampleRate();
+        return sampleRate > 0 && requests.getAndIncrement() % sampleRate == 0;
+    }
+}
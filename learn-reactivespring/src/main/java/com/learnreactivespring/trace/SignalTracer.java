@@ -0,0 +1,89 @@
+package com.learnreactivespring.trace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.Context;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Replacement for {@code .log()} on request paths: a sequence is only traced when the subscriber context carries
+ * {@link #TRACED_KEY} (set by {@link SignalTraceWebFilter}), and a traced sequence produces one timing record on
+ * termination instead of a log line per signal.
+ */
+@Slf4j
+@Component
+public class SignalTracer {
+
+    public static final String TRACED_KEY = SignalTracer.class.getName() + ".TRACED";
+    static final String TRACE_TIMER = "item.trace";
+
+    private final MeterRegistry meterRegistry;
+
+    public SignalTracer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static boolean isTraced(Context context) {
+        return context.getOrDefault(TRACED_KEY, Boolean.FALSE);
+    }
+
+    public static Context traced(Context context) {
+        return context.put(TRACED_KEY, Boolean.TRUE);
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> flux(String name) {
+        return source -> Flux.deferWithContext(context -> {
+            if (!isTraced(context)) {
+                return source;
+            }
+            Trace trace = new Trace(name);
+            return source.doOnNext(trace::onNext).doFinally(trace::finish);
+        });
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> mono(String name) {
+        return source -> Mono.deferWithContext(context -> {
+            if (!isTraced(context)) {
+                return source;
+            }
+            Trace trace = new Trace(name);
+            return source.doOnNext(trace::onNext).doFinally(trace::finish);
+        });
+    }
+
+    private class Trace {
+
+        private final String name;
+        private final long start = System.nanoTime();
+        private long firstElement;
+        private long elements;
+
+        Trace(String name) {
+            this.name = name;
+        }
+
+        void onNext(Object element) {
+            if (elements++ == 0) {
+                firstElement = System.nanoTime() - start;
+            }
+        }
+
+        void finish(SignalType signal) {
+            long duration = System.nanoTime() - start;
+            Timer.builder(TRACE_TIMER)
+                    .tags("name", name, "signal", signal.name())
+                    .register(meterRegistry)
+                    .record(duration, TimeUnit.NANOSECONDS);
+            log.info("trace name={} signal={} elements={} firstElementMicros={} durationMicros={}",
+                    name, signal, elements, TimeUnit.NANOSECONDS.toMicros(firstElement),
+                    TimeUnit.NANOSECONDS.toMicros(duration));
+        }
+    }
+}
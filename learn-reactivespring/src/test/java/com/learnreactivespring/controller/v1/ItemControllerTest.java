@@ -2,13 +2,23 @@ package com.learnreactivespring.controller.v1;
 
 import com.learnreactivespring.constants.ItemConstants;
 import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.dto.ItemImportProgress;
+import com.learnreactivespring.initialize.ItemIndexInitializer;
 import com.learnreactivespring.repository.ItemReactiveRepository;
+import com.learnreactivespring.service.ItemETags;
+import com.learnreactivespring.service.ItemStatsSummary;
+import com.learnreactivespring.service.ItemTypeahead;
+import org.bson.Document;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
@@ -22,6 +32,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_CBOR;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_SMILE;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_STREAM_SMILE;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 @SpringBootTest
@@ -36,6 +51,18 @@ public class ItemControllerTest {
     @Autowired
     private ItemReactiveRepository itemReactiveRepository;
 
+    @Autowired
+    private ItemIndexInitializer itemIndexInitializer;
+
+    @Autowired
+    private ReactiveMongoOperations reactiveMongoOperations;
+
+    @Autowired
+    private ItemTypeahead itemTypeahead;
+
+    @Autowired
+    private ItemStatsSummary itemStatsSummary;
+
     public List<Item> data() {
         return Arrays.asList(new Item(null, "Samsung TV", 399.99),
                 new Item(null, "LG TV", 329.99),
@@ -95,6 +122,242 @@ public class ItemControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    public void getAllItems_ndjson() {
+        Flux<Item> itemFlux = webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1)
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(APPLICATION_NDJSON)
+                .returnResult(Item.class)
+                .getResponseBody();
+
+        StepVerifier.create(itemFlux)
+                .expectSubscription()
+                .expectNextCount(4L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void getAllItems_serverSentEvents() {
+        Flux<Item> itemFlux = webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(Item.class)
+                .getResponseBody();
+
+        StepVerifier.create(itemFlux)
+                .expectSubscription()
+                .expectNextCount(4L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void getAllItems_paged() {
+        String continuationToken = webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?limit=3"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(ItemConstants.CONTINUATION_TOKEN_HEADER)
+                .expectBodyList(Item.class)
+                .hasSize(3)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(ItemConstants.CONTINUATION_TOKEN_HEADER);
+
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?limit=3&after={after}"), continuationToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(ItemConstants.CONTINUATION_TOKEN_HEADER)
+                .expectBodyList(Item.class)
+                .hasSize(1);
+    }
+
+    @Test
+    public void getAllItems_pagedAcrossNullPrices() {
+        itemReactiveRepository.saveAll(Arrays.asList(new Item("DEF", "Apple Watch", null), new Item("GHI", "Sony Walkman", null)))
+                .blockLast();
+
+        String ascendingToken = webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?sort=price&limit=1"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("DEF")
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(ItemConstants.CONTINUATION_TOKEN_HEADER);
+
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?sort=price&limit=10&after={after}"), ascendingToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(5)
+                .jsonPath("$[0].id").isEqualTo("GHI")
+                .jsonPath("$[1].price").isEqualTo(19.99);
+
+        String descendingToken = webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?sort=price,desc&limit=5"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[4].id").isEqualTo("GHI")
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst(ItemConstants.CONTINUATION_TOKEN_HEADER);
+
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?sort=price,desc&limit=10&after={after}"), descendingToken)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo("DEF");
+    }
+
+    @Test
+    public void getAllItems_sortedAndProjected() {
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?sort=price,desc&fields=price&limit=2"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].price").isEqualTo(399.99)
+                .jsonPath("$[0].description").doesNotExist()
+                .jsonPath("$[1].price").isEqualTo(349.99);
+    }
+
+    @Test
+    public void getAllItems_invalidSort() {
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("?sort=version"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void searchItems_descriptionPrefixAndPriceRange() {
+        webTestClient.get().uri(ItemConstants.ITEM_SEARCH_END_POINT_V1.concat("?descriptionPrefix=A&maxPrice=350&sort=price,desc"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].description").isEqualTo("Apple TV");
+    }
+
+    @Test
+    public void searchItems_priceRangeOrderedByPrice() {
+        webTestClient.get().uri(ItemConstants.ITEM_SEARCH_END_POINT_V1.concat("?minPrice=300&limit=2"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].price").isEqualTo(329.99)
+                .jsonPath("$[1].price").isEqualTo(349.99);
+    }
+
+    @Test
+    public void searchItems_withoutCriteria() {
+        webTestClient.get().uri(ItemConstants.ITEM_SEARCH_END_POINT_V1)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void searchItems_text() {
+        itemIndexInitializer.ensureIndexes().blockLast();
+
+        webTestClient.get().uri(ItemConstants.ITEM_SEARCH_END_POINT_V1.concat("?q=tv&limit=2"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").exists()
+                .jsonPath("$[0].price").exists()
+                .jsonPath("$[0].score").exists()
+                .jsonPath("$[0].highlight").value(highlight -> assertTrue(((String) highlight).endsWith("<em>TV</em>")));
+    }
+
+    @Test
+    public void suggestItems() {
+        itemTypeahead.rebuild().block();
+
+        webTestClient.get().uri(ItemConstants.ITEM_SUGGEST_END_POINT_V1.concat("?prefix=sam"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].description").isEqualTo("Samsung TV");
+    }
+
+    @Test
+    public void suggestItems_afterCreate() {
+        itemTypeahead.rebuild().block();
+
+        webTestClient.post().uri(ItemConstants.ITEM_END_POINT_V1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new Item(null, "Samsung Galaxy Watch", 249.99)), Item.class)
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+
+        webTestClient.get().uri(ItemConstants.ITEM_SUGGEST_END_POINT_V1.concat("?prefix=samsung g"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].description").isEqualTo("Samsung Galaxy Watch");
+    }
+
+    @Test
+    public void suggestItems_invalidParams() {
+        webTestClient.get().uri(ItemConstants.ITEM_SUGGEST_END_POINT_V1.concat("?prefix=sam&limit=-1"))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri(ItemConstants.ITEM_SUGGEST_END_POINT_V1)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void getStats_aggregation() {
+        webTestClient.get().uri(ItemConstants.ITEM_STATS_END_POINT_V1.concat("?source=aggregation&priceBoundaries=0,100,350"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(4)
+                .jsonPath("$.minPrice").isEqualTo(19.99)
+                .jsonPath("$.maxPrice").isEqualTo(399.99)
+                .jsonPath("$.avgPrice").value(avgPrice -> assertEquals(274.99, ((Number) avgPrice).doubleValue(), 1e-9))
+                .jsonPath("$.priceHistogram[0].count").isEqualTo(1)
+                .jsonPath("$.priceHistogram[1].count").isEqualTo(2)
+                .jsonPath("$.priceHistogram[2].lowerBound").doesNotExist()
+                .jsonPath("$.priceHistogram[2].count").isEqualTo(1)
+                .jsonPath("$.source").isEqualTo("aggregation");
+    }
+
+    @Test
+    public void getStats_summary() {
+        itemStatsSummary.reload().block();
+
+        webTestClient.post().uri(ItemConstants.ITEM_END_POINT_V1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new Item(null, "Samsung Galaxy Watch", 249.99)), Item.class)
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+
+        webTestClient.get().uri(ItemConstants.ITEM_STATS_END_POINT_V1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(5)
+                .jsonPath("$.maxPrice").isEqualTo(399.99)
+                .jsonPath("$.source").isEqualTo("summary");
+    }
+
+    @Test
+    public void getStats_invalidBoundaries() {
+        webTestClient.get().uri(ItemConstants.ITEM_STATS_END_POINT_V1.concat("?priceBoundaries=100,50"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     public void getOneItem() {
         webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
@@ -125,6 +388,259 @@ public class ItemControllerTest {
                 .jsonPath("$.price").isEqualTo(999.99);
     }
 
+    @Test
+    public void createItem_existingId() {
+        Item item = new Item("ABC", "Beats Studio HeadPhones", 29.99);
+        webTestClient.post().uri(ItemConstants.ITEM_END_POINT_V1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        StepVerifier.create(itemReactiveRepository.findById("ABC"))
+                .expectNextMatches(existing -> existing.getDescription().equals("Beats HeadPhones"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void createItems() {
+        Flux<Item> items = Flux.just(new Item(null, "Google Nest", 199.99),
+                new Item(null, "Amazon Echo", 99.99),
+                new Item("ABC", "Beats HeadPhones", 29.99));
+
+        Flux<ItemBulkResult> results = webTestClient.post().uri(ItemConstants.ITEM_BULK_END_POINT_V1)
+                .contentType(APPLICATION_NDJSON)
+                .accept(APPLICATION_NDJSON)
+                .body(items, Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ItemBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(results)
+                .expectSubscription()
+                .expectNextMatches(result -> Objects.nonNull(result.getId()) && result.getStatus() == ItemBulkResult.Status.CREATED)
+                .expectNextMatches(result -> Objects.nonNull(result.getId()) && result.getStatus() == ItemBulkResult.Status.CREATED)
+                .expectNextMatches(result -> result.getId().equals("ABC") && result.getStatus() == ItemBulkResult.Status.UPDATED)
+                .verifyComplete();
+
+        StepVerifier.create(itemReactiveRepository.findAll())
+                .expectSubscription()
+                .expectNextCount(6L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void createItems_replacesExistingItem() {
+        Item beats = new Item("ABC", "Beats Studio HeadPhones", null);
+
+        Flux<ItemBulkResult> results = webTestClient.post().uri(ItemConstants.ITEM_BULK_END_POINT_V1)
+                .contentType(APPLICATION_NDJSON)
+                .accept(APPLICATION_NDJSON)
+                .body(Flux.just(beats), Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ItemBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(results)
+                .expectNextMatches(result -> result.getStatus() == ItemBulkResult.Status.UPDATED)
+                .verifyComplete();
+        StepVerifier.create(itemReactiveRepository.findById("ABC"))
+                .expectNextMatches(item -> item.getDescription().equals("Beats Studio HeadPhones") && item.getPrice() == null
+                        && item.getVersion() == 1L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void createItems_staleVersionFails() {
+        Item beats = new Item("ABC", "Beats Studio HeadPhones", 29.99, 7L);
+
+        Flux<ItemBulkResult> results = webTestClient.post().uri(ItemConstants.ITEM_BULK_END_POINT_V1)
+                .contentType(APPLICATION_NDJSON)
+                .accept(APPLICATION_NDJSON)
+                .body(Flux.just(beats), Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ItemBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(results)
+                .expectNextMatches(result -> result.getStatus() == ItemBulkResult.Status.FAILED
+                        && result.getError().contains("changed by another write"))
+                .verifyComplete();
+        StepVerifier.create(itemReactiveRepository.findById("ABC").map(Item::getPrice))
+                .expectNext(19.99)
+                .verifyComplete();
+    }
+
+    @Test
+    public void getAllItems_streamSmile() {
+        Flux<Item> itemFlux = webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1)
+                .accept(APPLICATION_STREAM_SMILE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(APPLICATION_STREAM_SMILE)
+                .returnResult(Item.class)
+                .getResponseBody();
+
+        StepVerifier.create(itemFlux)
+                .expectSubscription()
+                .expectNextCount(4L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void getAllItems_cbor() {
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1)
+                .accept(APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(APPLICATION_CBOR)
+                .expectBodyList(Item.class)
+                .hasSize(4);
+    }
+
+    @Test
+    public void getOneItem_cbor() {
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .accept(APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(APPLICATION_CBOR)
+                .expectBody(Item.class)
+                .value(item -> assertEquals(19.99, item.getPrice(), 0));
+    }
+
+    @Test
+    public void createItem_smile() {
+        Item item = new Item(null, "Iphone X", 999.99);
+        webTestClient.post().uri(ItemConstants.ITEM_END_POINT_V1)
+                .contentType(APPLICATION_SMILE)
+                .accept(APPLICATION_SMILE)
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().contentType(APPLICATION_SMILE)
+                .expectBody(Item.class)
+                .value(created -> {
+                    assertTrue(Objects.nonNull(created.getId()));
+                    assertEquals("Iphone X", created.getDescription());
+                });
+    }
+
+    @Test
+    public void createItems_cbor() {
+        Flux<Item> items = Flux.just(new Item(null, "Google Nest", 199.99),
+                new Item(null, "Amazon Echo", 99.99));
+
+        Flux<ItemBulkResult> results = webTestClient.post().uri(ItemConstants.ITEM_BULK_END_POINT_V1)
+                .contentType(APPLICATION_CBOR)
+                .accept(APPLICATION_NDJSON)
+                .body(items, Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ItemBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(results)
+                .expectSubscription()
+                .expectNextCount(2L)
+                .verifyComplete();
+    }
+
+    // Larger than spring.codec.max-in-memory-size, which bounds the other codecs.
+    @Test
+    public void createItems_largeCborBody() {
+        Flux<Item> items = Flux.range(0, 2000).map(i -> new Item(null, "Bulk loaded item number " + i, 100.0 + i));
+
+        Flux<ItemBulkResult> results = webTestClient.post().uri(ItemConstants.ITEM_BULK_END_POINT_V1)
+                .contentType(APPLICATION_CBOR)
+                .accept(APPLICATION_NDJSON)
+                .body(items, Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ItemBulkResult.class)
+                .getResponseBody();
+
+        StepVerifier.create(results)
+                .expectSubscription()
+                .expectNextCount(2000L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void exportItems() {
+        Flux<Item> items = webTestClient.get().uri(ItemConstants.ITEM_EXPORT_END_POINT_V1)
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(APPLICATION_NDJSON)
+                .returnResult(Item.class)
+                .getResponseBody();
+
+        StepVerifier.create(items)
+                .expectSubscription()
+                .expectNextMatches(item -> item.getId().equals("ABC"))
+                .expectNextCount(3L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void exportItems_afterId() {
+        List<Item> firstTwo = webTestClient.get().uri(ItemConstants.ITEM_EXPORT_END_POINT_V1)
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .returnResult(Item.class)
+                .getResponseBody()
+                .take(2)
+                .collectList()
+                .block();
+
+        List<String> rest = webTestClient.get().uri(ItemConstants.ITEM_EXPORT_END_POINT_V1 + "?after={id}", firstTwo.get(1).getId())
+                .accept(APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Item.class)
+                .getResponseBody()
+                .map(Item::getId)
+                .collectList()
+                .block();
+
+        assertEquals(2, rest.size());
+        assertTrue(rest.stream().noneMatch(id -> id.equals(firstTwo.get(0).getId()) || id.equals(firstTwo.get(1).getId())));
+    }
+
+    @Test
+    public void importItems() {
+        Flux<Item> items = Flux.just(new Item("IMP1", "Google Nest", 199.99),
+                new Item("IMP2", "Amazon Echo", 99.99),
+                new Item("ABC", "Beats HeadPhones", 29.99));
+
+        Flux<ItemImportProgress> progress = webTestClient.post().uri(ItemConstants.ITEM_IMPORT_END_POINT_V1)
+                .contentType(APPLICATION_NDJSON)
+                .accept(APPLICATION_NDJSON)
+                .body(items, Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ItemImportProgress.class)
+                .getResponseBody();
+
+        StepVerifier.create(progress.last())
+                .expectSubscription()
+                .expectNextMatches(last -> last.isDone() && last.getProcessed() == 3 && last.getInserted() == 2
+                        && last.getFailed() == 1 && last.getLastError() != null)
+                .verifyComplete();
+
+        StepVerifier.create(itemReactiveRepository.findAll())
+                .expectSubscription()
+                .expectNextCount(6L)
+                .verifyComplete();
+        StepVerifier.create(itemReactiveRepository.findById("ABC").map(Item::getPrice))
+                .expectNext(19.99)
+                .verifyComplete();
+    }
+
     @Test
     public void deleteItem() {
         webTestClient.delete().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
@@ -150,6 +666,111 @@ public class ItemControllerTest {
                 .jsonPath("$.price").isEqualTo(newPrice);
     }
 
+    @Test
+    public void updateItem_withVersion() {
+        double newPrice = 234.87;
+        Item item = new Item(null, "Beats HeadPhones", newPrice, 0L);
+        webTestClient.put().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.price").isEqualTo(newPrice)
+                .jsonPath("$.version").isEqualTo(1);
+    }
+
+    @Test
+    public void updateItem_versionConflict() {
+        double newPrice = 234.87;
+        Item item = new Item(null, "Beats HeadPhones", newPrice, 5L);
+        webTestClient.put().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void getOneItem_notModified() {
+        String eTag = webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v0\"")
+                .returnResult(Item.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void updateItem_ifMatch() {
+        double newPrice = 234.87;
+        Item item = new Item(null, "Beats HeadPhones", newPrice);
+        webTestClient.put().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"v0\"")
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+                .expectBody()
+                .jsonPath("$.price").isEqualTo(newPrice);
+    }
+
+    @Test
+    public void updateItem_ifMatchFailed() {
+        double newPrice = 234.87;
+        Item item = new Item(null, "Beats HeadPhones", newPrice);
+        webTestClient.put().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"v5\"")
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    public void updateItem_ifMatchUnversionedItem() {
+        reactiveMongoOperations.insert(new Document("_id", "XYZ").append("description", "Bose Speaker").append("price", 129.99),
+                reactiveMongoOperations.getCollectionName(Item.class)).block();
+        Item item = new Item(null, "Bose Speaker", 99.99);
+        webTestClient.put().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "XYZ")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, ItemETags.eTag(new Item("XYZ", "Bose Speaker", 129.99)))
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+                .expectBody()
+                .jsonPath("$.price").isEqualTo(99.99);
+    }
+
+    @Test
+    public void updateItem_ifMatchConflictingVersion() {
+        Item item = new Item("ABC", "Beats HeadPhones", 234.87, 3L);
+        webTestClient.put().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"v0\"")
+                .body(Mono.just(item), Item.class)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        StepVerifier.create(itemReactiveRepository.findById("ABC"))
+                .expectNextMatches(existing -> existing.getPrice() == 19.99)
+                .verifyComplete();
+    }
+
     @Test
     public void updateItem_notFound() {
         double newPrice = 234.87;
@@ -0,0 +1,145 @@
+package com.learnreactivespring.controller.v1;
+
+import com.learnreactivespring.constants.ItemConstants;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringRunner.class)
+@DirtiesContext
+@ActiveProfiles("test")
+public class ItemRSocketControllerTest {
+
+    @Autowired
+    private RSocketRequester.Builder rSocketRequesterBuilder;
+
+    @Autowired
+    private ItemReactiveRepository itemReactiveRepository;
+
+    @LocalServerPort
+    private int port;
+
+    private RSocketRequester rSocketRequester;
+
+    public List<Item> data() {
+        return Arrays.asList(new Item(null, "Samsung TV", 399.99),
+                new Item(null, "LG TV", 329.99),
+                new Item(null, "Apple TV", 349.99),
+                new Item("ABC", "Beats HeadPhones", 19.99));
+    }
+
+    @Before
+    public void setUp() {
+        itemReactiveRepository.deleteAll()
+                .thenMany(Flux.fromIterable(data()))
+                .flatMap(itemReactiveRepository::save)
+                .blockLast();
+        rSocketRequester = rSocketRequesterBuilder.connectWebSocket(URI.create("ws://localhost:" + port + "/rsocket")).block();
+    }
+
+    @After
+    public void tearDown() {
+        rSocketRequester.rsocket().dispose();
+    }
+
+    @Test
+    public void getItem() {
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_GET_ROUTE_V1 + ".{id}", "ABC")
+                .retrieveMono(Item.class))
+                .expectNextMatches(item -> item.getDescription().equals("Beats HeadPhones"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void getItem_notFound() {
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_GET_ROUTE_V1 + ".{id}", "DEF")
+                .retrieveMono(Item.class))
+                .verifyComplete();
+    }
+
+    @Test
+    public void saveItem() {
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_SAVE_ROUTE_V1)
+                .data(new Item(null, "Iphone X", 999.99))
+                .retrieveMono(Item.class))
+                .expectNextMatches(item -> Objects.nonNull(item.getId()) && item.getDescription().equals("Iphone X"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void updateItem() {
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_UPDATE_ROUTE_V1 + ".{id}", "ABC")
+                .data(new Item(null, "Beats HeadPhones", 29.99))
+                .retrieveMono(Item.class))
+                .expectNextMatches(item -> item.getId().equals("ABC") && item.getPrice() == 29.99)
+                .verifyComplete();
+
+        StepVerifier.create(itemReactiveRepository.findAll())
+                .expectNextCount(4L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void updateItem_notFound() {
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_UPDATE_ROUTE_V1 + ".{id}", "DEF")
+                .data(new Item(null, "Beats HeadPhones", 29.99))
+                .retrieveMono(Item.class))
+                .verifyComplete();
+    }
+
+    @Test
+    public void deleteItem() {
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_DELETE_ROUTE_V1 + ".{id}", "ABC")
+                .retrieveMono(Void.class))
+                .verifyComplete();
+
+        StepVerifier.create(itemReactiveRepository.findById("ABC"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void getAllItems() {
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_ALL_ROUTE_V1)
+                .retrieveFlux(Item.class))
+                .expectNextCount(4L)
+                .verifyComplete();
+    }
+
+    @Test
+    public void saveItems() {
+        Flux<Item> items = Flux.just(new Item(null, "Google Nest", 199.99),
+                new Item(null, "Amazon Echo", 99.99),
+                new Item("ABC", "Beats HeadPhones", 29.99));
+
+        StepVerifier.create(rSocketRequester.route(ItemConstants.ITEM_BULK_ROUTE_V1)
+                .data(items, Item.class)
+                .retrieveFlux(ItemBulkResult.class))
+                .expectNextMatches(result -> result.getStatus() == ItemBulkResult.Status.CREATED)
+                .expectNextMatches(result -> result.getStatus() == ItemBulkResult.Status.CREATED)
+                .expectNextMatches(result -> result.getId().equals("ABC") && result.getStatus() == ItemBulkResult.Status.UPDATED)
+                .verifyComplete();
+
+        StepVerifier.create(itemReactiveRepository.findAll())
+                .expectNextCount(6L)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,54 @@
+package com.learnreactivespring.flow;
+
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class BatchesTest {
+
+    @Test
+    public void cutsFullBatchesBySize() {
+        StepVerifier.create(Batches.bySizeOrInterval(Flux.range(1, 5), 2, Duration.ofMinutes(1)))
+                .expectNext(Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5))
+                .verifyComplete();
+    }
+
+    @Test
+    public void cutsPartialBatchesOnTheInterval() {
+        TestPublisher<Integer> source = TestPublisher.create();
+
+        StepVerifier.withVirtualTime(() -> Batches.bySizeOrInterval(source.flux(), 10, Duration.ofMillis(50)))
+                .expectSubscription()
+                .then(() -> source.next(1, 2))
+                .thenAwait(Duration.ofMillis(50))
+                .expectNext(Arrays.asList(1, 2))
+                .then(() -> source.next(3))
+                .thenAwait(Duration.ofMillis(50))
+                .expectNext(Collections.singletonList(3))
+                .then(source::complete)
+                .verifyComplete();
+    }
+
+    @Test
+    public void waitsForDemandInsteadOfOverflowing() {
+        TestPublisher<Integer> source = TestPublisher.create();
+
+        StepVerifier.withVirtualTime(() -> Batches.bySizeOrInterval(source.flux(), 2, Duration.ofMillis(10)), 1)
+                .expectSubscription()
+                .then(() -> source.next(1, 2))
+                .expectNext(Arrays.asList(1, 2))
+                .then(() -> source.next(3))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(1)
+                .expectNext(Collections.singletonList(3))
+                // Ticks queued while there was no demand sit ahead of the completion until the next request.
+                .then(source::complete)
+                .thenRequest(1)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,101 @@
+package com.learnreactivespring.flow;
+
+import com.learnreactivespring.config.ItemProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.Exceptions;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamFlowControlTest {
+
+    private ItemProperties itemProperties;
+    private MeterRegistry meterRegistry;
+    private TestPublisher<Integer> source;
+
+    @Before
+    public void setUp() {
+        itemProperties = new ItemProperties();
+        itemProperties.getStream().setBufferSize(3);
+        meterRegistry = new SimpleMeterRegistry();
+        source = TestPublisher.create();
+    }
+
+    @Test
+    public void dropOldestKeepsTheNewestElementsForAStalledClient() {
+        itemProperties.getStream().setOverflowStrategy(ItemProperties.Stream.OverflowStrategy.DROP_OLDEST);
+
+        StepVerifier.create(flowControl().apply(source.flux(), "test"), 0)
+                .expectSubscription()
+                .then(() -> source.next(1, 2, 3, 4, 5, 6, 7, 8, 9, 10))
+                .then(() -> assertEquals(3, gauge(StreamFlowControl.BUFFERED), 0))
+                .thenRequest(10)
+                .expectNext(8, 9, 10)
+                .then(source::complete)
+                .verifyComplete();
+
+        assertEquals(7, meterRegistry.counter(StreamFlowControl.DROPPED, "stream", "test").count(), 0);
+        assertEquals(0, gauge(StreamFlowControl.BUFFERED), 0);
+        assertEquals(3, meterRegistry.find(StreamFlowControl.CONNECTION_BUFFERED).summary().max(), 0);
+        assertEquals(7, meterRegistry.find(StreamFlowControl.CONNECTION_DROPPED).summary().max(), 0);
+    }
+
+    @Test
+    public void latestKeepsOnlyTheMostRecentElement() {
+        itemProperties.getStream().setOverflowStrategy(ItemProperties.Stream.OverflowStrategy.LATEST);
+
+        StepVerifier.create(flowControl().apply(source.flux(), "test"), 0)
+                .expectSubscription()
+                .then(() -> source.next(1, 2, 3, 4, 5, 6, 7, 8, 9, 10))
+                .then(() -> assertEquals(1, gauge(StreamFlowControl.BUFFERED), 0))
+                .thenRequest(10)
+                .expectNext(10)
+                .then(source::complete)
+                .verifyComplete();
+
+        assertEquals(9, meterRegistry.counter(StreamFlowControl.DROPPED, "stream", "test").count(), 0);
+    }
+
+    @Test
+    public void disconnectClosesAStalledConnectionOnceTheLagThresholdIsReached() {
+        itemProperties.getStream().setOverflowStrategy(ItemProperties.Stream.OverflowStrategy.DISCONNECT);
+
+        StepVerifier.create(flowControl().apply(source.flux(), "test"), 0)
+                .expectSubscription()
+                .then(() -> source.next(1, 2, 3, 4))
+                .verifyErrorMatches(Exceptions::isOverflow);
+
+        source.assertCancelled();
+        assertEquals(1, meterRegistry.counter(StreamFlowControl.DISCONNECTS, "stream", "test").count(), 0);
+        assertEquals(0, gauge(StreamFlowControl.BUFFERED), 0);
+        assertEquals(0, gauge(StreamFlowControl.CONNECTIONS), 0);
+    }
+
+    @Test
+    public void cancelledConnectionReleasesItsBufferedCount() {
+        StepVerifier.create(flowControl().apply(source.flux(), "test"), 0)
+                .expectSubscription()
+                .then(() -> source.next(1, 2))
+                .then(() -> {
+                    assertEquals(1, gauge(StreamFlowControl.CONNECTIONS), 0);
+                    assertEquals(2, gauge(StreamFlowControl.BUFFERED), 0);
+                })
+                .thenCancel()
+                .verify();
+
+        assertEquals(0, gauge(StreamFlowControl.CONNECTIONS), 0);
+        assertEquals(0, gauge(StreamFlowControl.BUFFERED), 0);
+    }
+
+    private StreamFlowControl flowControl() {
+        return new StreamFlowControl(itemProperties, meterRegistry);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.find(name).tags("stream", "test").gauge().value();
+    }
+}
@@ -0,0 +1,115 @@
+package com.learnreactivespring.flow;
+
+import com.learnreactivespring.config.ItemProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_NDJSON;
+import static com.learnreactivespring.constants.ItemMediaTypes.APPLICATION_STREAM_SMILE;
+import static org.junit.Assert.assertEquals;
+
+public class StreamHeartbeatWebFilterTest {
+
+    private ItemProperties itemProperties;
+    private MeterRegistry meterRegistry;
+    private List<String> written;
+
+    @Before
+    public void setUp() {
+        itemProperties = new ItemProperties();
+        itemProperties.getStream().setHeartbeatInterval(Duration.ofMillis(50));
+        meterRegistry = new SimpleMeterRegistry();
+        written = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    public void idleJsonLinesStreamGetsBlankLineHeartbeats() {
+        MockServerWebExchange exchange = exchange(3);
+
+        filter().filter(exchange, stalledStream(APPLICATION_NDJSON, "{\"id\":\"1\"}\n")).block(Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList("{\"id\":\"1\"}\n", "\n", "\n"), written);
+        assertEquals(2, meterRegistry.counter(StreamHeartbeatWebFilter.HEARTBEATS).count(), 0);
+    }
+
+    @Test
+    public void idleServerSentEventsGetCommentHeartbeats() {
+        MockServerWebExchange exchange = exchange(2);
+
+        filter().filter(exchange, stalledStream(MediaType.TEXT_EVENT_STREAM, "data:{\"id\":\"1\"}\n\n")).block(Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList("data:{\"id\":\"1\"}\n\n", ":heartbeat\n\n"), written);
+    }
+
+    @Test
+    public void heartbeatsStopWhenTheStreamCompletes() {
+        MockServerWebExchange exchange = exchange(Integer.MAX_VALUE);
+        WebFilterChain chain = filterExchange -> {
+            ServerHttpResponse response = filterExchange.getResponse();
+            response.getHeaders().setContentType(APPLICATION_NDJSON);
+            return response.writeAndFlushWith(Flux.just(Flux.just(buffer("{\"id\":\"1\"}\n"))));
+        };
+
+        filter().filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList("{\"id\":\"1\"}\n"), written);
+    }
+
+    @Test
+    public void binaryStreamsAreLeftAlone() {
+        itemProperties.getStream().setHeartbeatInterval(Duration.ofMillis(10));
+        MockServerWebExchange exchange = exchange(Integer.MAX_VALUE);
+        WebFilterChain chain = filterExchange -> {
+            ServerHttpResponse response = filterExchange.getResponse();
+            response.getHeaders().setContentType(APPLICATION_STREAM_SMILE);
+            return response.writeAndFlushWith(Flux.just(Flux.just(buffer("smile"))).delayElements(Duration.ofMillis(100)));
+        };
+
+        filter().filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        assertEquals(Arrays.asList("smile"), written);
+    }
+
+    private StreamHeartbeatWebFilter filter() {
+        return new StreamHeartbeatWebFilter(itemProperties, meterRegistry);
+    }
+
+    // Records what reaches the client and hangs up after the given number of frames.
+    private MockServerWebExchange exchange(int frames) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/v1/stream/items"));
+        exchange.getResponse().setWriteHandler(body -> body
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .take(frames)
+                .doOnNext(written::add)
+                .then());
+        return exchange;
+    }
+
+    private static WebFilterChain stalledStream(MediaType mediaType, String firstFrame) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(mediaType);
+            return response.writeAndFlushWith(Flux.just(Flux.just(buffer(firstFrame))).concatWith(Flux.never()));
+        };
+    }
+
+    private static DataBuffer buffer(String frame) {
+        return new DefaultDataBufferFactory().wrap(frame.getBytes(StandardCharsets.UTF_8));
+    }
+}
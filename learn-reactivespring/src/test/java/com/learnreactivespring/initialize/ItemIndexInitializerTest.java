@@ -0,0 +1,123 @@
+package com.learnreactivespring.initialize;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemSearchQuery;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@DataMongoTest
+@RunWith(SpringRunner.class)
+@DirtiesContext
+public class ItemIndexInitializerTest {
+
+    private static final List<String> ITEM_INDEXES = Arrays.asList("description_price", "price_description");
+
+    @Autowired
+    private ReactiveMongoOperations reactiveMongoOperations;
+
+    @Autowired
+    private MongoMappingContext mongoMappingContext;
+
+    @Autowired
+    private ItemReactiveRepository itemReactiveRepository;
+
+    private ItemIndexInitializer itemIndexInitializer;
+
+    @Before
+    public void setUp() {
+        itemReactiveRepository.deleteAll()
+                .thenMany(Flux.just(new Item(null, "Samsung TV", 399.99),
+                        new Item(null, "LG TV", 329.99),
+                        new Item(null, "Apple TV", 349.99),
+                        new Item("ABC", "Beats HeadPhones", 19.99)))
+                .flatMap(itemReactiveRepository::save)
+                .blockLast();
+        itemIndexInitializer = new ItemIndexInitializer(reactiveMongoOperations, mongoMappingContext);
+    }
+
+    @Test
+    public void ensureIndexesIsIdempotent() {
+        itemIndexInitializer.ensureIndexes().blockLast();
+        itemIndexInitializer.ensureIndexes().blockLast();
+
+        List<String> indexNames = reactiveMongoOperations.indexOps(Item.class).getIndexInfo()
+                .map(IndexInfo::getName)
+                .collectList()
+                .block();
+        assertEquals(4, indexNames.size());
+        assertTrue(indexNames.containsAll(ITEM_INDEXES));
+    }
+
+    @Test
+    public void everySearchUsesAnIndex() {
+        itemIndexInitializer.ensureIndexes().blockLast();
+
+        assertIndexed(search("description", "LG TV"));
+        assertIndexed(search("description", "LG TV", "minPrice", "300"));
+        assertIndexed(search("descriptionPrefix", "A"));
+        assertIndexed(search("descriptionPrefix", "A", "maxPrice", "350", "sort", "price,desc"));
+        assertIndexed(search("minPrice", "300", "maxPrice", "400"));
+        assertIndexed(search("maxPrice", "400", "sort", "description"));
+    }
+
+    private static Query search(String... params) {
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>();
+        for (int i = 0; i < params.length; i += 2) {
+            queryParams.add(params[i], params[i + 1]);
+        }
+        return ItemSearchQuery.from(queryParams, new ItemProperties.Page()).query();
+    }
+
+    // Either compound index can bound these queries, and on a handful of documents the planner may pick either one.
+    private void assertIndexed(Query query) {
+        Document explain = reactiveMongoOperations.executeCommand(new Document("explain",
+                new Document("find", reactiveMongoOperations.getCollectionName(Item.class))
+                        .append("filter", query.getQueryObject())
+                        .append("sort", query.getSortObject())
+                        .append("limit", query.getLimit()))
+                .append("verbosity", "queryPlanner"))
+                .block();
+        List<Document> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner", Document.class).get("winningPlan", Document.class), stages);
+        List<String> stageNames = stages.stream().map(stage -> stage.getString("stage")).collect(Collectors.toList());
+
+        assertFalse(query + " scans the collection: " + stageNames, stageNames.contains("COLLSCAN"));
+        assertTrue(query + " does not use an item index: " + stages, stages.stream()
+                .anyMatch(stage -> "IXSCAN".equals(stage.getString("stage")) && ITEM_INDEXES.contains(stage.getString("indexName"))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectStages(Document stage, List<Document> stages) {
+        stages.add(stage);
+        if (stage.containsKey("inputStage")) {
+            collectStages(stage.get("inputStage", Document.class), stages);
+        }
+        if (stage.containsKey("inputStages")) {
+            ((List<Document>) stage.get("inputStages")).forEach(input -> collectStages(input, stages));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.learnreactivespring.initialize;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.service.ItemBulkService;
+import com.learnreactivespring.service.ItemWriteListener;
+import com.mongodb.client.result.DeleteResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ItemSeederTest {
+
+    private ItemProperties itemProperties;
+    private ItemBulkService itemBulkService;
+    private ItemWriteListener itemWriteListener;
+    private ItemSeeder itemSeeder;
+
+    @Before
+    public void setUp() {
+        itemProperties = new ItemProperties();
+        ReactiveMongoOperations reactiveMongoOperations = mock(ReactiveMongoOperations.class);
+        when(reactiveMongoOperations.remove(any(Query.class), eq(Item.class))).thenReturn(Mono.just(DeleteResult.acknowledged(0)));
+        itemBulkService = mock(ItemBulkService.class);
+        itemWriteListener = mock(ItemWriteListener.class);
+        itemSeeder = new ItemSeeder(reactiveMongoOperations, itemBulkService, itemProperties,
+                Collections.singletonList(itemWriteListener));
+    }
+
+    @Test
+    public void sameRandomSeedGeneratesSameItems() {
+        List<Item> first = itemSeeder.generate(100).collectList().block();
+        List<Item> second = itemSeeder.generate(100).collectList().block();
+        itemProperties.getSeed().setRandomSeed(7);
+        List<Item> other = itemSeeder.generate(100).collectList().block();
+
+        assertEquals(100, first.size());
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    public void outOfServiceUntilSeeded() {
+        TestPublisher<List<ItemBulkResult>> batches = TestPublisher.create();
+        when(itemBulkService.writeBatches(any(), eq(ItemBulkService.WriteMode.INSERT), anyInt(), anyInt()))
+                .thenReturn(batches.flux());
+        ItemSeedHealthIndicator healthIndicator = new ItemSeedHealthIndicator(itemSeeder);
+
+        StepVerifier.create(itemSeeder.seed(itemSeeder.generate(3)))
+                .expectSubscription()
+                .then(() -> assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus()))
+                .then(() -> batches.next(Arrays.asList(new ItemBulkResult("A", ItemBulkResult.Status.CREATED, null),
+                        new ItemBulkResult("B", ItemBulkResult.Status.FAILED, "duplicate key"),
+                        new ItemBulkResult("C", ItemBulkResult.Status.CREATED, null))))
+                .then(() -> assertEquals(2L, itemSeeder.getWritten()))
+                .then(batches::complete)
+                .expectNext(2L)
+                .verifyComplete();
+
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+    }
+
+    @Test
+    public void clearsListenersBeforeWriting() {
+        when(itemBulkService.writeBatches(any(), eq(ItemBulkService.WriteMode.INSERT), anyInt(), anyInt()))
+                .thenReturn(Flux.defer(() -> {
+                    verify(itemWriteListener).cleared();
+                    return Flux.empty();
+                }));
+
+        StepVerifier.create(itemSeeder.seed(itemSeeder.generate(3)))
+                .expectNext(0L)
+                .verifyComplete();
+
+        verify(itemWriteListener).cleared();
+    }
+
+    @Test
+    public void downWhenSeedFails() {
+        when(itemBulkService.writeBatches(any(), eq(ItemBulkService.WriteMode.INSERT), anyInt(), anyInt()))
+                .thenReturn(Flux.error(new IllegalStateException("no primary")));
+
+        StepVerifier.create(itemSeeder.seed(Flux.empty()))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(Status.DOWN, new ItemSeedHealthIndicator(itemSeeder).health().getStatus());
+    }
+}
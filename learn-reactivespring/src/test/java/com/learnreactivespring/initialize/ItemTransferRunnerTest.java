@@ -0,0 +1,50 @@
+package com.learnreactivespring.initialize;
+
+import com.learnreactivespring.LearnReactivespringApplication;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ItemTransferRunnerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    // Boots the way LearnReactivespringApplication.main does for a transfer, short of exiting the JVM.
+    @Test
+    public void exportRunsWithoutTheWebServerAndReportsItsExitCode() {
+        File export = new File(temporaryFolder.getRoot(), "items.ndjson");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LearnReactivespringApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--" + ItemTransferRunner.EXPORT + "=" + export);
+
+        assertFalse(context instanceof WebServerApplicationContext);
+        assertTrue(export.exists());
+        assertEquals(0, SpringApplication.exit(context));
+    }
+
+    @Test
+    public void failedTransferExitsWithOne() {
+        File missing = new File(temporaryFolder.getRoot(), "missing.ndjson");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LearnReactivespringApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--" + ItemTransferRunner.IMPORT + "=" + missing);
+
+        assertEquals(1, SpringApplication.exit(context));
+    }
+}
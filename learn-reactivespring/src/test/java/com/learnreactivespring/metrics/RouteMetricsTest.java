@@ -0,0 +1,108 @@
+package com.learnreactivespring.metrics;
+
+import com.learnreactivespring.constants.ItemConstants;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@DirtiesContext
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+public class RouteMetricsTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ItemReactiveRepository itemReactiveRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        itemReactiveRepository.deleteAll()
+                .then(itemReactiveRepository.save(new Item("ABC", "Beats HeadPhones", 19.99)))
+                .block();
+    }
+
+    @Test
+    public void annotatedRoute_recordsLatencyAndSizeByTemplate() {
+        webTestClient.get().uri(ItemConstants.ITEM_END_POINT_V1.concat("/{id}"), "ABC")
+                .exchange()
+                .expectStatus().isOk();
+
+        Timer timer = meterRegistry.find(RouteMetricsWebFilter.REQUESTS)
+                .tags("method", "GET", "uri", ItemConstants.ITEM_END_POINT_V1 + "/{id}", "status", "200")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+
+        DistributionSummary size = meterRegistry.find(RouteMetricsWebFilter.RESPONSE_SIZE)
+                .tags("uri", ItemConstants.ITEM_END_POINT_V1 + "/{id}")
+                .summary();
+        assertNotNull(size);
+        assertTrue(size.totalAmount() > 0);
+        assertEquals(0, meterRegistry.get(RouteMetricsWebFilter.ACTIVE).gauge().value(), 0);
+    }
+
+    @Test
+    public void functionalRoute_recordsHandlerTimeAndErrors() {
+        webTestClient.get().uri(ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1.concat("/{id}"), "ABC")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/fun/runtimeException")
+                .exchange()
+                .expectStatus().is5xxServerError();
+
+        Timer handler = meterRegistry.find(RouteMetricsHandlerFilter.HANDLER)
+                .tags("uri", ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1 + "/{id}")
+                .timer();
+        assertNotNull(handler);
+        assertEquals(1, handler.count());
+        assertEquals(0, meterRegistry.get(RouteMetricsHandlerFilter.HANDLER_ACTIVE)
+                .tags("uri", ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1 + "/{id}")
+                .gauge().value(), 0);
+
+        assertNotNull(meterRegistry.find(RouteMetricsWebFilter.ERRORS)
+                .tags("uri", "/fun/runtimeException")
+                .counter());
+    }
+
+    @Test
+    public void functionalRoute_recordsTheStatusItsErrorIsAnsweredWith() {
+        webTestClient.post().uri(ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"description\": ")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        Timer timer = meterRegistry.find(RouteMetricsWebFilter.REQUESTS)
+                .tags("method", "POST", "uri", ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1, "status", "400", "outcome", "CLIENT_ERROR")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        assertNull(meterRegistry.find(RouteMetricsWebFilter.ERRORS)
+                .tags("uri", ItemConstants.ITEM_FUNCTIONAL_END_POINT_V1)
+                .counter());
+    }
+}
@@ -0,0 +1,70 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class ItemCacheTest {
+
+    private ItemReactiveRepository itemReactiveRepository;
+    private ItemCache itemCache;
+
+    @Before
+    public void setUp() {
+        itemReactiveRepository = mock(ItemReactiveRepository.class);
+        itemCache = new ItemCache(itemReactiveRepository, new ItemProperties());
+    }
+
+    @Test
+    public void concurrentMissesHitRepositoryOnce() {
+        when(itemReactiveRepository.findById("ABC"))
+                .thenReturn(Mono.just(new Item("ABC", "Beats HeadPhones", 19.99)).delayElement(Duration.ofMillis(100)));
+
+        StepVerifier.create(Mono.zip(itemCache.findById("ABC"), itemCache.findById("ABC")))
+                .expectSubscription()
+                .expectNextMatches(items -> items.getT1().getId().equals("ABC") && items.getT2().getId().equals("ABC"))
+                .verifyComplete();
+
+        verify(itemReactiveRepository, times(1)).findById("ABC");
+    }
+
+    @Test
+    public void invalidateForcesReload() {
+        when(itemReactiveRepository.findById("ABC"))
+                .thenReturn(Mono.just(new Item("ABC", "Beats HeadPhones", 19.99)));
+
+        StepVerifier.create(itemCache.findById("ABC").then(itemCache.findById("ABC")))
+                .expectSubscription()
+                .expectNextCount(1)
+                .verifyComplete();
+        itemCache.invalidate("ABC");
+        StepVerifier.create(itemCache.findById("ABC"))
+                .expectSubscription()
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(itemReactiveRepository, times(2)).findById("ABC");
+        assertEquals(1L, itemCache.stats().getHitCount());
+        assertEquals(2L, itemCache.stats().getMissCount());
+    }
+
+    @Test
+    public void missingItemIsNotCached() {
+        when(itemReactiveRepository.findById("DEF")).thenReturn(Mono.empty());
+
+        StepVerifier.create(itemCache.findById("DEF").then(itemCache.findById("DEF")))
+                .expectSubscription()
+                .verifyComplete();
+
+        verify(itemReactiveRepository, times(2)).findById("DEF");
+    }
+}
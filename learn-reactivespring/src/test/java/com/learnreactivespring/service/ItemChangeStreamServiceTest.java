@@ -0,0 +1,173 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemChangeEvent;
+import com.learnreactivespring.dto.ItemChangeQuery;
+import com.learnreactivespring.flow.StreamFlowControl;
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ItemChangeStreamServiceTest {
+
+    private static final BsonDocument FIRST_TOKEN = new BsonDocument("_data", new BsonString("8200000001"));
+    private static final BsonDocument SECOND_TOKEN = new BsonDocument("_data", new BsonString("8200000002"));
+
+    private ReactiveMongoOperations reactiveMongoOperations;
+    private MappingMongoConverter converter;
+    private MeterRegistry meterRegistry;
+    private ItemChangeStreamService itemChangeStreamService;
+
+    @Before
+    public void setUp() {
+        reactiveMongoOperations = mock(ReactiveMongoOperations.class);
+        when(reactiveMongoOperations.getCollectionName(Item.class)).thenReturn("item");
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        meterRegistry = new SimpleMeterRegistry();
+        ItemProperties itemProperties = new ItemProperties();
+        itemProperties.getChanges().setReconnectMinBackoff(Duration.ofMillis(10));
+        itemProperties.getChanges().setReconnectMaxBackoff(Duration.ofMillis(50));
+        itemProperties.getStream().setBufferSize(1);
+        itemChangeStreamService = new ItemChangeStreamService(reactiveMongoOperations,
+                new StreamFlowControl(itemProperties, meterRegistry), itemProperties);
+    }
+
+    @Test
+    public void emitsInsertsUpdatesAndDeletes() {
+        ObjectId deletedId = new ObjectId();
+        when(reactiveMongoOperations.changeStream(eq("item"), any(ChangeStreamOptions.class), eq(Item.class)))
+                .thenReturn(Flux.just(event(OperationType.INSERT, FIRST_TOKEN, "ABC", "Apple TV", 349.99),
+                        event(OperationType.UPDATE, SECOND_TOKEN, "ABC", "Apple TV", 299.99),
+                        event(OperationType.DELETE, SECOND_TOKEN, new BsonDocument("_id", new BsonObjectId(deletedId)), null))
+                        .concatWith(Flux.never()));
+
+        StepVerifier.create(itemChangeStreamService.getItemChanges(query(null, null, null, null)).take(3))
+                .expectNextMatches(event -> event.getOperation() == ItemChangeEvent.Operation.INSERT
+                        && event.getId().equals("ABC")
+                        && event.getItem().getPrice() == 349.99
+                        && event.getResumeToken().equals(ItemChangeQuery.encodeResumeToken(FIRST_TOKEN)))
+                .expectNextMatches(event -> event.getOperation() == ItemChangeEvent.Operation.UPDATE
+                        && event.getItem().getPrice() == 299.99)
+                .expectNextMatches(event -> event.getOperation() == ItemChangeEvent.Operation.DELETE
+                        && event.getId().equals(deletedId.toHexString())
+                        && event.getItem() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    public void pushesFiltersAndResumeTokenIntoTheChangeStream() {
+        ArgumentCaptor<ChangeStreamOptions> options = ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        when(reactiveMongoOperations.changeStream(eq("item"), options.capture(), eq(Item.class)))
+                .thenReturn(Flux.never());
+
+        itemChangeStreamService.getItemChanges(query("tv", 100.0, 400.0, FIRST_TOKEN)).subscribe().dispose();
+
+        assertEquals(FIRST_TOKEN, options.getValue().getResumeToken().get());
+        List<Document> pipeline = ((Aggregation) options.getValue().getFilter().get()).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(Document.parse("{\"$or\": ["
+                        + "{\"operationType\": {\"$in\": [\"insert\", \"update\", \"replace\"]},"
+                        + " \"description\": {\"$regularExpression\": {\"pattern\": \"\\\\Qtv\\\\E\", \"options\": \"i\"}},"
+                        + " \"price\": {\"$gte\": 100.0, \"$lte\": 400.0}},"
+                        + " {\"operationType\": \"delete\"}]}").toJson(),
+                pipeline.get(0).get("$match", Document.class).toJson());
+    }
+
+    @Test
+    public void resumesAfterLastTokenWhenTheStreamFails() {
+        ArgumentCaptor<ChangeStreamOptions> options = ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        when(reactiveMongoOperations.changeStream(eq("item"), options.capture(), eq(Item.class)))
+                .thenReturn(Flux.just(event(OperationType.INSERT, FIRST_TOKEN, "1", "LG TV", 329.99))
+                        .concatWith(Flux.error(new RuntimeException("Cursor killed"))))
+                .thenReturn(Flux.just(event(OperationType.INSERT, SECOND_TOKEN, "2", "Samsung TV", 399.99))
+                        .concatWith(Flux.never()));
+
+        StepVerifier.create(itemChangeStreamService.getItemChanges(query(null, null, null, null)).take(2))
+                .expectNextMatches(event -> event.getId().equals("1"))
+                .expectNextMatches(event -> event.getId().equals("2"))
+                .verifyComplete();
+
+        assertEquals(2, options.getAllValues().size());
+        assertEquals(FIRST_TOKEN, options.getAllValues().get(1).getResumeToken().get());
+    }
+
+    @Test
+    public void failsWithoutRetryingWhenChangeStreamsAreUnsupported() {
+        MongoCommandException notReplicaSet = new MongoCommandException(new BsonDocument("ok", new BsonInt32(0))
+                .append("code", new BsonInt32(40573))
+                .append("errmsg", new BsonString("The $changeStream stage is only supported on replica sets")),
+                new ServerAddress());
+        when(reactiveMongoOperations.changeStream(eq("item"), any(ChangeStreamOptions.class), eq(Item.class)))
+                .thenReturn(Flux.error(notReplicaSet));
+
+        StepVerifier.create(itemChangeStreamService.getItemChanges(query(null, null, null, null)))
+                .verifyError(MongoCommandException.class);
+
+        verify(reactiveMongoOperations, times(1)).changeStream(eq("item"), any(ChangeStreamOptions.class), eq(Item.class));
+    }
+
+    @Test
+    public void slowSubscribersGetTheStreamFlowControlPolicy() {
+        when(reactiveMongoOperations.changeStream(eq("item"), any(ChangeStreamOptions.class), eq(Item.class)))
+                .thenReturn(Flux.just(event(OperationType.INSERT, FIRST_TOKEN, "ABC", "Apple TV", 349.99),
+                        event(OperationType.UPDATE, SECOND_TOKEN, "ABC", "Apple TV", 299.99))
+                        .concatWith(Flux.never()));
+
+        StepVerifier.create(itemChangeStreamService.getItemChanges(query(null, null, null, null)), 0)
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(100))
+                .thenRequest(1)
+                .expectNextMatches(event -> event.getItem().getPrice() == 299.99)
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, meterRegistry.counter("item.stream.dropped", "stream", "changes").count(), 0);
+    }
+
+    private static ItemChangeQuery query(String description, Double minPrice, Double maxPrice, BsonDocument resumeToken) {
+        return new ItemChangeQuery(description, minPrice, maxPrice, resumeToken);
+    }
+
+    private ChangeStreamEvent<Item> event(OperationType operationType, BsonDocument resumeToken,
+                                          String id, String description, Double price) {
+        Document fullDocument = new Document("_id", id).append("description", description).append("price", price);
+        return event(operationType, resumeToken, new BsonDocument("_id", new BsonString(id)), fullDocument);
+    }
+
+    private ChangeStreamEvent<Item> event(OperationType operationType, BsonDocument resumeToken,
+                                          BsonDocument documentKey, Document fullDocument) {
+        ChangeStreamDocument<Document> raw = new ChangeStreamDocument<>(operationType, resumeToken, null, null,
+                fullDocument, documentKey, null, null, null, null);
+        return new ChangeStreamEvent<>(raw, Item.class, converter);
+    }
+}
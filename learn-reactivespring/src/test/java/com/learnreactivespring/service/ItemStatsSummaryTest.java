@@ -0,0 +1,122 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemPriceBucket;
+import com.learnreactivespring.dto.ItemStats;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ItemStatsSummaryTest {
+
+    private static final List<Double> BOUNDARIES = Arrays.asList(0.0, 100.0, 500.0);
+
+    private ItemStatsService itemStatsService;
+    private ReactiveMongoOperations reactiveMongoOperations;
+    private ItemStatsSummary itemStatsSummary;
+
+    // Items 1 to 4 priced 399.99, 329.99, 19.99 and 999.0, and one without a price.
+    @Before
+    public void setUp() {
+        itemStatsService = mock(ItemStatsService.class);
+        reactiveMongoOperations = mock(ReactiveMongoOperations.class);
+        ItemProperties itemProperties = new ItemProperties();
+        itemProperties.getStats().setPriceBoundaries(BOUNDARIES);
+        itemStatsSummary = new ItemStatsSummary(itemStatsService, reactiveMongoOperations, itemProperties);
+        when(itemStatsService.aggregate(BOUNDARIES)).thenReturn(Mono.just(new ItemStats(5, 19.99, 999.0,
+                (399.99 + 329.99 + 19.99 + 999.0) / 4,
+                ItemStatsService.histogram(BOUNDARIES, new long[]{1, 2, 2}), ItemStats.AGGREGATION)));
+        when(reactiveMongoOperations.count(any(Query.class), eq(Item.class))).thenReturn(Mono.just(1L));
+    }
+
+    @Test
+    public void reloadLoadsTheAggregation() {
+        assertFalse(itemStatsSummary.isLoaded());
+
+        itemStatsSummary.reload().block();
+
+        assertTrue(itemStatsSummary.isLoaded());
+        ItemStats stats = itemStatsSummary.stats();
+        assertEquals(5, stats.getCount());
+        assertEquals(19.99, stats.getMinPrice(), 0);
+        assertEquals(999.0, stats.getMaxPrice(), 0);
+        assertEquals((399.99 + 329.99 + 19.99 + 999.0) / 4, stats.getAvgPrice(), 1e-9);
+        assertEquals(Arrays.asList(1L, 2L, 2L), counts(stats));
+        assertEquals(ItemStats.SUMMARY, stats.getSource());
+    }
+
+    @Test
+    public void writesAdjustTheSummaryByTheirOldAndNewPrices() {
+        itemStatsSummary.reload().block();
+
+        itemStatsSummary.saved(new Item("3", null, 19.99), new Item("3", null, 149.99));
+        itemStatsSummary.saved(null, new Item("6", null, 9.99));
+        itemStatsSummary.deleted(new Item("4", null, 999.0));
+
+        ItemStats stats = itemStatsSummary.stats();
+        assertEquals(5, stats.getCount());
+        assertEquals(9.99, stats.getMinPrice(), 0);
+        assertEquals((399.99 + 329.99 + 149.99 + 9.99) / 4, stats.getAvgPrice(), 1e-9);
+        assertEquals(Arrays.asList(1L, 3L, 1L), counts(stats));
+    }
+
+    @Test
+    public void deletedBoundStaysUntilTheNextReload() {
+        itemStatsSummary.reload().block();
+
+        itemStatsSummary.deleted(new Item("4", null, 999.0));
+
+        assertEquals(999.0, itemStatsSummary.stats().getMaxPrice(), 0);
+        assertEquals(4, itemStatsSummary.stats().getCount());
+
+        itemStatsSummary.reload().block();
+
+        assertEquals(5, itemStatsSummary.stats().getCount());
+    }
+
+    @Test
+    public void writesWithoutTheOldItemAreLeftToTheNextReload() {
+        itemStatsSummary.reload().block();
+
+        itemStatsSummary.saved(new Item("3", null, 149.99));
+        itemStatsSummary.deleted("7");
+
+        ItemStats stats = itemStatsSummary.stats();
+        assertEquals(5, stats.getCount());
+        assertEquals(Arrays.asList(1L, 2L, 2L), counts(stats));
+    }
+
+    @Test
+    public void clearedEmptiesTheSummary() {
+        itemStatsSummary.reload().block();
+
+        itemStatsSummary.cleared();
+        itemStatsSummary.saved(null, new Item("1", null, null));
+
+        ItemStats stats = itemStatsSummary.stats();
+        assertEquals(1, stats.getCount());
+        assertNull(stats.getMinPrice());
+        assertNull(stats.getAvgPrice());
+        assertEquals(Arrays.asList(0L, 0L, 1L), counts(stats));
+    }
+
+    private static List<Long> counts(ItemStats stats) {
+        return stats.getPriceHistogram().stream().map(ItemPriceBucket::getCount).collect(Collectors.toList());
+    }
+}
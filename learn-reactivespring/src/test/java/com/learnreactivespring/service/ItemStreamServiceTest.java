@@ -0,0 +1,163 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.ItemCapped;
+import com.learnreactivespring.dto.ItemStreamFilter;
+import com.learnreactivespring.flow.StreamFlowControl;
+import com.learnreactivespring.repository.ItemReactiveCappedRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ItemStreamServiceTest {
+
+    private ItemReactiveCappedRepository itemReactiveCappedRepository;
+    private ReactiveMongoOperations reactiveMongoOperations;
+    private ItemProperties itemProperties;
+    private ItemStreamService itemStreamService;
+
+    @Before
+    public void setUp() {
+        itemReactiveCappedRepository = mock(ItemReactiveCappedRepository.class);
+        reactiveMongoOperations = mock(ReactiveMongoOperations.class);
+        itemProperties = new ItemProperties();
+        itemProperties.getStream().setReconnectMinBackoff(Duration.ofMillis(10));
+        itemProperties.getStream().setReconnectMaxBackoff(Duration.ofMillis(50));
+        itemStreamService = new ItemStreamService(itemReactiveCappedRepository, reactiveMongoOperations,
+                new StreamFlowControl(itemProperties, new SimpleMeterRegistry()), itemProperties);
+    }
+
+    @Test
+    public void subscribersShareOneTailableCursor() {
+        when(itemReactiveCappedRepository.findItemsBy())
+                .thenReturn(Flux.just(new ItemCapped("1", "Random Item 0", 100.0),
+                        new ItemCapped("2", "Random Item 1", 101.0))
+                        .concatWith(Flux.never()));
+
+        Flux<ItemCapped> firstSubscriber = itemStreamService.getItemsStream().take(2);
+        Flux<ItemCapped> secondSubscriber = itemStreamService.getItemsStream().take(2);
+
+        StepVerifier.create(Flux.merge(firstSubscriber, secondSubscriber))
+                .expectSubscription()
+                .expectNextCount(4)
+                .verifyComplete();
+
+        verify(itemReactiveCappedRepository, times(1)).findItemsBy();
+    }
+
+    @Test
+    public void reconnectsFromLastSeenId() {
+        when(itemReactiveCappedRepository.findItemsBy())
+                .thenReturn(Flux.just(new ItemCapped("1", "Random Item 0", 100.0))
+                        .concatWith(Flux.error(new RuntimeException("Cursor killed"))));
+        when(itemReactiveCappedRepository.findItemsByIdGreaterThan("1"))
+                .thenReturn(Flux.just(new ItemCapped("2", "Random Item 1", 101.0))
+                        .concatWith(Flux.never()));
+
+        StepVerifier.create(itemStreamService.getItemsStream().take(2))
+                .expectSubscription()
+                .expectNextMatches(itemCapped -> itemCapped.getId().equals("1"))
+                .expectNextMatches(itemCapped -> itemCapped.getId().equals("2"))
+                .verifyComplete();
+
+        verify(itemReactiveCappedRepository, times(1)).findItemsBy();
+        verify(itemReactiveCappedRepository, times(1)).findItemsByIdGreaterThan("1");
+    }
+
+    @Test
+    public void equalFiltersShareOneFilteredTailableCursor() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(reactiveMongoOperations.tail(query.capture(), eq(ItemCapped.class)))
+                .thenReturn(Flux.just(new ItemCapped("2", "Random Item 1", 101.0))
+                        .concatWith(Flux.never()));
+
+        Flux<ItemCapped> firstSubscriber = itemStreamService.getItemsStream(filter(100.0, 200.0, "Random", "2")).take(1);
+        Flux<ItemCapped> secondSubscriber = itemStreamService.getItemsStream(filter(100.0, 200.0, "Random", "2")).take(1);
+
+        StepVerifier.create(Flux.merge(firstSubscriber, secondSubscriber))
+                .expectSubscription()
+                .expectNextCount(2)
+                .verifyComplete();
+
+        verify(reactiveMongoOperations, times(1)).tail(any(Query.class), eq(ItemCapped.class));
+        verify(itemReactiveCappedRepository, never()).findItemsBy();
+        assertEquals(Document.parse("{\"price\": {\"$gte\": 100.0, \"$lte\": 200.0},"
+                        + " \"description\": {\"$regularExpression\": {\"pattern\": \"^\\\\QRandom\\\\E\", \"options\": \"\"}},"
+                        + " \"id\": {\"$in\": [\"2\"]}}").toJson(),
+                query.getValue().getQueryObject().toJson());
+    }
+
+    @Test
+    public void filtersBeyondTheCursorLimitAreEvaluatedOnTheSharedStream() {
+        itemProperties.getStream().setMaxFilteredCursors(0);
+        when(itemReactiveCappedRepository.findItemsBy())
+                .thenReturn(Flux.just(new ItemCapped("1", "Random Item 0", 100.0),
+                        new ItemCapped("2", "Random Item 1", 150.0),
+                        new ItemCapped("3", "Other Item 2", 150.0),
+                        new ItemCapped("4", "Random Item 3", 250.0))
+                        .concatWith(Flux.never()));
+
+        StepVerifier.create(itemStreamService.getItemsStream(filter(120.0, 200.0, "Random", null)).take(1))
+                .expectSubscription()
+                .expectNextMatches(itemCapped -> itemCapped.getId().equals("2"))
+                .verifyComplete();
+
+        verify(reactiveMongoOperations, never()).tail(any(Query.class), eq(ItemCapped.class));
+    }
+
+    @Test
+    public void concurrentNewFiltersStayWithinTheCursorLimit() throws Exception {
+        itemProperties.getStream().setMaxFilteredCursors(1);
+        when(itemReactiveCappedRepository.findItemsBy()).thenReturn(Flux.never());
+        when(reactiveMongoOperations.tail(any(Query.class), eq(ItemCapped.class))).thenReturn(Flux.never());
+        int filters = 64;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Flux<ItemCapped>>> streams = new ArrayList<>();
+        for (int i = 0; i < filters; i++) {
+            ItemStreamFilter filter = filter((double) i, null, null, null);
+            streams.add(executor.submit(() -> {
+                start.await();
+                return itemStreamService.getItemsStream(filter);
+            }));
+        }
+        start.countDown();
+        List<Disposable> subscriptions = new ArrayList<>();
+        for (Future<Flux<ItemCapped>> stream : streams) {
+            subscriptions.add(stream.get(5, TimeUnit.SECONDS).subscribe());
+        }
+        executor.shutdown();
+
+        verify(reactiveMongoOperations, times(1)).tail(any(Query.class), eq(ItemCapped.class));
+        subscriptions.forEach(Disposable::dispose);
+    }
+
+    private static ItemStreamFilter filter(Double minPrice, Double maxPrice, String descriptionPrefix, String id) {
+        return new ItemStreamFilter(minPrice, maxPrice, descriptionPrefix,
+                id == null ? Collections.emptySet() : new LinkedHashSet<>(Arrays.asList(id)));
+    }
+}
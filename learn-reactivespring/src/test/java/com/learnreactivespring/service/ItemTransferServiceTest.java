@@ -0,0 +1,72 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemBulkResult;
+import com.learnreactivespring.exception.ItemImportRejectedException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ItemTransferServiceTest {
+
+    private ItemBulkService itemBulkService;
+    private ItemTransferService itemTransferService;
+
+    @Before
+    public void setUp() {
+        ItemProperties itemProperties = new ItemProperties();
+        itemProperties.getTransfer().setMaxConcurrentImports(1);
+        itemBulkService = mock(ItemBulkService.class);
+        itemTransferService = new ItemTransferService(mock(ReactiveMongoOperations.class), itemBulkService, itemProperties);
+    }
+
+    @Test
+    public void progressAddsUpBatches() {
+        List<ItemBulkResult> first = Arrays.asList(new ItemBulkResult("A", ItemBulkResult.Status.CREATED, null),
+                new ItemBulkResult("B", ItemBulkResult.Status.FAILED, "duplicate key"));
+        List<ItemBulkResult> second = Collections.singletonList(new ItemBulkResult("C", ItemBulkResult.Status.CREATED, null));
+        when(itemBulkService.writeBatches(any(), eq(ItemBulkService.WriteMode.INSERT), anyInt(), anyInt()))
+                .thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(itemTransferService.importItems(Flux.<Item>empty()))
+                .expectSubscription()
+                .expectNextMatches(progress -> progress.getProcessed() == 2 && progress.getInserted() == 1
+                        && progress.getFailed() == 1 && "B".equals(progress.getLastId()) && !progress.isDone())
+                .expectNextMatches(progress -> progress.getProcessed() == 3 && progress.getInserted() == 2
+                        && "C".equals(progress.getLastId()) && "duplicate key".equals(progress.getLastError()) && !progress.isDone())
+                .expectNextMatches(progress -> progress.getProcessed() == 3 && progress.isDone())
+                .verifyComplete();
+    }
+
+    @Test
+    public void importsBeyondTheLimitAreRejectedUntilOneFinishes() {
+        TestPublisher<List<ItemBulkResult>> running = TestPublisher.create();
+        when(itemBulkService.writeBatches(any(), eq(ItemBulkService.WriteMode.INSERT), anyInt(), anyInt()))
+                .thenReturn(running.flux(), Flux.empty());
+
+        StepVerifier.create(itemTransferService.importItems(Flux.<Item>empty()))
+                .expectSubscription()
+                .then(() -> StepVerifier.create(itemTransferService.importItems(Flux.<Item>empty()))
+                        .verifyError(ItemImportRejectedException.class))
+                .then(running::complete)
+                .expectNextMatches(progress -> progress.isDone())
+                .verifyComplete();
+
+        StepVerifier.create(itemTransferService.importItems(Flux.<Item>empty()))
+                .expectNextMatches(progress -> progress.isDone() && progress.getProcessed() == 0)
+                .verifyComplete();
+    }
+}
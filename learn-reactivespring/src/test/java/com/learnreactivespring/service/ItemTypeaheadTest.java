@@ -0,0 +1,100 @@
+package com.learnreactivespring.service;
+
+import com.learnreactivespring.config.ItemProperties;
+import com.learnreactivespring.document.Item;
+import com.learnreactivespring.dto.ItemSuggestion;
+import com.learnreactivespring.repository.ItemReactiveRepository;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ItemTypeaheadTest {
+
+    private ItemReactiveRepository itemReactiveRepository;
+    private ItemTypeahead itemTypeahead;
+
+    @Before
+    public void setUp() {
+        itemReactiveRepository = mock(ItemReactiveRepository.class);
+        itemTypeahead = new ItemTypeahead(itemReactiveRepository, new ItemProperties());
+        when(itemReactiveRepository.findAll()).thenReturn(Flux.just(new Item("1", "Samsung TV", 399.99),
+                new Item("2", "Samsung Galaxy Watch", 249.99),
+                new Item("3", "Apple TV", 349.99),
+                new Item("4", "Beats HeadPhones", 19.99)));
+        itemTypeahead.rebuild().block();
+    }
+
+    @Test
+    public void suggestsItemsWithAWordStartingWithThePrefix() {
+        assertEquals(Arrays.asList("Samsung TV", "Samsung Galaxy Watch"), descriptions(itemTypeahead.suggest("sam", 10)));
+        assertEquals(Collections.singletonList("Beats HeadPhones"), descriptions(itemTypeahead.suggest("HEAD", 10)));
+    }
+
+    @Test
+    public void everyTypedWordMustMatch() {
+        assertEquals(Collections.singletonList("Samsung TV"), descriptions(itemTypeahead.suggest("samsung t", 10)));
+        assertEquals(Collections.emptyList(), itemTypeahead.suggest("apple wa", 10));
+    }
+
+    @Test
+    public void prefixesShorterThanMinGramSuggestNothing() {
+        assertEquals(Collections.emptyList(), itemTypeahead.suggest("s", 10));
+        assertEquals(Collections.emptyList(), itemTypeahead.suggest(" ", 10));
+    }
+
+    @Test
+    public void limitIsCappedAtMaxSuggestions() {
+        assertEquals(1, itemTypeahead.suggest("sa", 1).size());
+        assertEquals(2, itemTypeahead.suggest("sa", Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void clearedDropsEveryItem() {
+        itemTypeahead.cleared();
+        itemTypeahead.saved(new Item("5", "Sony Walkman", 99.99));
+
+        assertEquals(Collections.emptyList(), itemTypeahead.suggest("sam", 10));
+        assertEquals(Collections.singletonList("Sony Walkman"), descriptions(itemTypeahead.suggest("so", 10)));
+        assertEquals(1, itemTypeahead.size());
+    }
+
+    @Test
+    public void writesUpdateTheIndex() {
+        itemTypeahead.saved(new Item("3", "Apple Watch", 299.99));
+        itemTypeahead.saved(new Item("5", "Sony Walkman", 99.99));
+        itemTypeahead.deleted("2");
+
+        assertEquals(Arrays.asList("Apple Watch", "Sony Walkman"), descriptions(itemTypeahead.suggest("wa", 10)));
+        assertEquals(Collections.emptyList(), itemTypeahead.suggest("galaxy", 10));
+        assertEquals(4, itemTypeahead.size());
+    }
+
+    @Test
+    public void rebuildKeepsWritesMadeWhileItRanAndEvictsItemsGoneFromTheDatabase() {
+        when(itemReactiveRepository.findAll()).thenReturn(Flux.defer(() -> {
+            itemTypeahead.deleted("1");
+            itemTypeahead.saved(new Item("5", "Sony Walkman", 99.99));
+            return Flux.just(new Item("1", "Samsung TV", 399.99), new Item("3", "Apple TV", 349.99));
+        }));
+
+        itemTypeahead.rebuild().block();
+
+        assertEquals(Collections.emptyList(), itemTypeahead.suggest("samsung", 10));
+        assertEquals(Collections.singletonList("Sony Walkman"), descriptions(itemTypeahead.suggest("sony", 10)));
+        assertEquals(Collections.singletonList("Apple TV"), descriptions(itemTypeahead.suggest("tv", 10)));
+        assertEquals(2, itemTypeahead.size());
+    }
+
+    private static List<String> descriptions(List<ItemSuggestion> suggestions) {
+        return suggestions.stream().map(ItemSuggestion::getDescription).collect(Collectors.toList());
+    }
+}
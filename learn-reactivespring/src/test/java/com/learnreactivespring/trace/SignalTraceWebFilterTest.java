@@ -0,0 +1,70 @@
+package com.learnreactivespring.trace;
+
+import com.learnreactivespring.config.ItemProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SignalTraceWebFilterTest {
+
+    private ItemProperties itemProperties;
+    private List<Boolean> traced;
+    private WebFilterChain chain;
+
+    @Before
+    public void setUp() {
+        itemProperties = new ItemProperties();
+        traced = new ArrayList<>();
+        chain = exchange -> Mono.subscriberContext()
+                .doOnNext(context -> traced.add(SignalTracer.isTraced(context)))
+                .then();
+    }
+
+    @Test
+    public void disabledIgnoresHeader() {
+        filter(new SignalTraceWebFilter(itemProperties), true);
+
+        assertEquals(Arrays.asList(false), traced);
+    }
+
+    @Test
+    public void headerSwitchesTracingOn() {
+        itemProperties.getTrace().setEnabled(true);
+        SignalTraceWebFilter filter = new SignalTraceWebFilter(itemProperties);
+
+        filter(filter, true);
+        filter(filter, false);
+
+        assertEquals(Arrays.asList(true, false), traced);
+    }
+
+    @Test
+    public void samplesOneInN() {
+        itemProperties.getTrace().setEnabled(true);
+        itemProperties.getTrace().setSampleRate(3);
+        SignalTraceWebFilter filter = new SignalTraceWebFilter(itemProperties);
+
+        for (int i = 0; i < 6; i++) {
+            filter(filter, false);
+        }
+
+        assertEquals(Arrays.asList(true, false, false, true, false, false), traced);
+    }
+
+    private void filter(SignalTraceWebFilter filter, boolean header) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/v1/items");
+        if (header) {
+            request.header(itemProperties.getTrace().getHeader(), "true");
+        }
+        filter.filter(MockServerWebExchange.from(request), chain).block();
+    }
+}
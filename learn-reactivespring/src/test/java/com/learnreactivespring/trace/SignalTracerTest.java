@@ -0,0 +1,60 @@
+package com.learnreactivespring.trace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class SignalTracerTest {
+
+    private MeterRegistry meterRegistry;
+    private SignalTracer signalTracer;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        signalTracer = new SignalTracer(meterRegistry);
+    }
+
+    @Test
+    public void untracedSequenceRecordsNothing() {
+        StepVerifier.create(Flux.just(1, 2, 3).transform(signalTracer.flux("numbers")))
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+
+        assertNull(meterRegistry.find(SignalTracer.TRACE_TIMER).timer());
+    }
+
+    @Test
+    public void tracedSequenceRecordsOneTimingPerSubscription() {
+        Flux<Integer> traced = Flux.just(1, 2, 3)
+                .transform(signalTracer.flux("numbers"))
+                .subscriberContext(SignalTracer::traced);
+
+        StepVerifier.create(traced).expectNext(1, 2, 3).verifyComplete();
+        StepVerifier.create(traced).expectNext(1, 2, 3).verifyComplete();
+
+        Timer timer = meterRegistry.find(SignalTracer.TRACE_TIMER).tags("name", "numbers", "signal", "ON_COMPLETE").timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    public void tracedMonoRecordsError() {
+        Mono<Integer> traced = Mono.<Integer>error(new RuntimeException("Exception Occurred"))
+                .transform(signalTracer.mono("failing"))
+                .subscriberContext(SignalTracer::traced);
+
+        StepVerifier.create(traced).verifyError(RuntimeException.class);
+
+        assertNotNull(meterRegistry.find(SignalTracer.TRACE_TIMER).tags("name", "failing", "signal", "ON_ERROR").timer());
+    }
+}